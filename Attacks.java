@@ -0,0 +1,209 @@
+// Precomputed attack tables, built once when the class is loaded.
+// Knights, kings and pawns use plain per-square tables; rooks and bishops use magic
+// bitboards, so every attack lookup is a mask, a multiply, a shift and an array read.
+public final class Attacks {
+    static final long[] KNIGHT = new long[64];
+    static final long[] KING = new long[64];
+    static final long[][] PAWN = new long[2][64]; // squares a pawn of each colour attacks
+    static final long[][] BETWEEN = new long[64][64]; // squares strictly between two aligned squares
+    static final long[][] LINE = new long[64][64];    // whole line through two aligned squares
+
+    // Magic bitboard data. The magics were found by a seeded random search over sparse
+    // candidates and are fixed here so class loading only has to fill the tables.
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] ROOK_MAGIC = {
+        0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+        0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+        0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+        0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+        0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+        0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+        0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+        0x0050500500080100L, 0x0000020080040080L, 0x0C10010400420810L, 0x1040008200005104L,
+        0x01808240088004A0L, 0x0882804004802000L, 0x0880402001001100L, 0x2000210409001000L,
+        0x2000480131001500L, 0x0000800400800200L, 0x000002380C001003L, 0x4600084882000431L,
+        0x0080002000504000L, 0x0300500020004002L, 0x0040408200220011L, 0x0010040008004040L,
+        0x0000080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+        0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+        0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+        0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+        0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+    };
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final long[] BISHOP_MAGIC = {
+        0x20C0090901061081L, 0x0024040094030104L, 0x8210810200290200L, 0x0011040484620000L,
+        0x0081104002221000L, 0x0009012011001350L, 0x0081010802400380L, 0x0000420210010408L,
+        0x0008105002280050L, 0x0001028484040044L, 0x2A00880810408804L, 0x7020022282000100L,
+        0x0084040420100A50L, 0x000401010840E000L, 0x2020020210420888L, 0x0008084202012010L,
+        0x2010400810018800L, 0x0445122008020840L, 0x0804100808002008L, 0x0008002104110100L,
+        0x0061005820080800L, 0x2001000200820100L, 0x480C210084010800L, 0x3004442500480420L,
+        0x1010102240048100L, 0x00182009084220A3L, 0x8803090A10004205L, 0x0208080040202020L,
+        0x000C044084010040L, 0x00A1010002004106L, 0x6008210020640202L, 0x1600902112860801L,
+        0x00042008C1220200L, 0x010C042002440140L, 0x5022080200040820L, 0x0402004042940100L,
+        0x0860108400008020L, 0x000C080022021000L, 0x0264080652822100L, 0x4005031221010401L,
+        0x0004502410008400L, 0x000500B010A20400L, 0x0415094050080800L, 0x080000201800A104L,
+        0x4022A80304000110L, 0x4012140802028020L, 0x40200104010100A0L, 0x12810806008B0C41L,
+        0x0020441008080000L, 0x2002120084045420L, 0x0704020062080002L, 0x0000001084040001L,
+        0x0322200891240200L, 0xF040200210024800L, 0x0140824832008042L, 0x000210020A004602L,
+        0x0083042805141020L, 0x002C12009A011000L, 0x0041A00044140400L, 0x00004004020A0202L,
+        0x0000140010020210L, 0x2864160811012200L, 0x2060080841082A17L, 0xA010041108003100L
+    };
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    private static final int[][] ROOK_DIRECTIONS = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {1, -1}, {-1, 1}, {1, 1}};
+    private static final int[][] KNIGHT_STEPS = {{-2, 1}, {-1, 2}, {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}};
+    private static final int[][] KING_STEPS = {{-1, -1}, {0, -1}, {1, -1}, {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}};
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            KNIGHT[sq] = stepAttacks(sq, KNIGHT_STEPS);
+            KING[sq] = stepAttacks(sq, KING_STEPS);
+            PAWN[Piece.WHITE][sq] = stepAttacks(sq, new int[][] {{-1, -1}, {1, -1}});
+            PAWN[Piece.BLACK][sq] = stepAttacks(sq, new int[][] {{-1, 1}, {1, 1}});
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            initMagic(sq, ROOK_DIRECTIONS, ROOK_MASK, ROOK_MAGIC, ROOK_SHIFT, ROOK_TABLE);
+            initMagic(sq, BISHOP_DIRECTIONS, BISHOP_MASK, BISHOP_MAGIC, BISHOP_SHIFT, BISHOP_TABLE);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long bitA = 1L << a;
+                long bitB = 1L << b;
+                if (a != b && (rook(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = rook(a, bitB) & rook(b, bitA);
+                    LINE[a][b] = (rook(a, 0) & rook(b, 0)) | bitA | bitB;
+                } else if (a != b && (bishop(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = bishop(a, bitB) & bishop(b, bitA);
+                    LINE[a][b] = (bishop(a, 0) & bishop(b, 0)) | bitA | bitB;
+                }
+            }
+        }
+    }
+
+    private Attacks() {}
+
+    public static long knight(int sq) {
+        return KNIGHT[sq];
+    }
+
+    public static long king(int sq) {
+        return KING[sq];
+    }
+
+    public static long pawn(int color, int sq) {
+        return PAWN[color][sq];
+    }
+
+    public static long rook(int sq, long occupied) {
+        return ROOK_TABLE[sq][(int) (((occupied & ROOK_MASK[sq]) * ROOK_MAGIC[sq]) >>> ROOK_SHIFT[sq])];
+    }
+
+    public static long bishop(int sq, long occupied) {
+        return BISHOP_TABLE[sq][(int) (((occupied & BISHOP_MASK[sq]) * BISHOP_MAGIC[sq]) >>> BISHOP_SHIFT[sq])];
+    }
+
+    public static long queen(int sq, long occupied) {
+        return rook(sq, occupied) | bishop(sq, occupied);
+    }
+
+    // All pieces of either colour attacking a square, given an occupancy
+    public static long attackersTo(Position pos, int sq, long occupied) {
+        long[] p = pos.pieces;
+        return (PAWN[Piece.BLACK][sq] & p[Piece.WP])
+            | (PAWN[Piece.WHITE][sq] & p[Piece.BP])
+            | (KNIGHT[sq] & (p[Piece.WN] | p[Piece.BN]))
+            | (KING[sq] & (p[Piece.WK] | p[Piece.BK]))
+            | (bishop(sq, occupied) & (p[Piece.WB] | p[Piece.BB] | p[Piece.WQ] | p[Piece.BQ]))
+            | (rook(sq, occupied) & (p[Piece.WR] | p[Piece.BR] | p[Piece.WQ] | p[Piece.BQ]));
+    }
+
+    // Is the square attacked by any piece of colour 'by'?
+    public static boolean isAttacked(Position pos, int sq, int by) {
+        return isAttacked(pos, sq, by, pos.occupied);
+    }
+
+    // Same, with a custom occupancy (e.g. without the king, so sliders see through it)
+    public static boolean isAttacked(Position pos, int sq, int by, long occupied) {
+        long[] p = pos.pieces;
+        int base = by * 6;
+        return (PAWN[by ^ 1][sq] & p[base + Piece.PAWN]) != 0
+            || (KNIGHT[sq] & p[base + Piece.KNIGHT]) != 0
+            || (KING[sq] & p[base + Piece.KING]) != 0
+            || (bishop(sq, occupied) & (p[base + Piece.BISHOP] | p[base + Piece.QUEEN])) != 0
+            || (rook(sq, occupied) & (p[base + Piece.ROOK] | p[base + Piece.QUEEN])) != 0;
+    }
+
+    // Is the king of the given colour in check?
+    public static boolean inCheck(Position pos, int color) {
+        long king = pos.pieces[Piece.make(color, Piece.KING)];
+        return king != 0 && isAttacked(pos, Long.numberOfTrailingZeros(king), color ^ 1);
+    }
+
+    private static long stepAttacks(int sq, int[][] steps) {
+        long attacks = 0;
+        int x = sq & 7;
+        int y = sq >> 3;
+        for (int[] step : steps) {
+            int nx = x + step[0];
+            int ny = y + step[1];
+            if (nx >= 0 && nx < 8 && ny >= 0 && ny < 8) {
+                attacks |= 1L << (ny * 8 + nx);
+            }
+        }
+        return attacks;
+    }
+
+    // Slow ray walk, only used to fill the magic tables
+    private static long slidingAttacks(int sq, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] d : directions) {
+            int nx = (sq & 7) + d[0];
+            int ny = (sq >> 3) + d[1];
+            while (nx >= 0 && nx < 8 && ny >= 0 && ny < 8) {
+                long bit = 1L << (ny * 8 + nx);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                nx += d[0];
+                ny += d[1];
+            }
+        }
+        return attacks;
+    }
+
+    // Relevant occupancy: the rays without the board edge they run into
+    private static long relevantMask(int sq, int[][] directions) {
+        long mask = 0;
+        for (int[] d : directions) {
+            int nx = (sq & 7) + d[0];
+            int ny = (sq >> 3) + d[1];
+            while (nx + d[0] >= 0 && nx + d[0] < 8 && ny + d[1] >= 0 && ny + d[1] < 8) {
+                mask |= 1L << (ny * 8 + nx);
+                nx += d[0];
+                ny += d[1];
+            }
+        }
+        return mask;
+    }
+
+    private static void initMagic(int sq, int[][] directions, long[] masks, long[] magics, int[] shifts,
+                                  long[][] tables) {
+        long mask = relevantMask(sq, directions);
+        int bits = Long.bitCount(mask);
+        long[] table = new long[1 << bits];
+        long subset = 0;
+        do {
+            // Carry-rippler enumeration of every subset of the mask
+            table[(int) ((subset * magics[sq]) >>> (64 - bits))] = slidingAttacks(sq, subset, directions);
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+        masks[sq] = mask;
+        shifts[sq] = 64 - bits;
+        tables[sq] = table;
+    }
+}
@@ -0,0 +1,324 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+// Micro-benchmarks for the hot paths, run the same way every time so releases can be compared.
+// The workloads are defined here once. The JMH module in bench/ runs them under JMH
+// (forks, warmup, measurement), and is the harness to quote numbers from:
+//   mvn -B install && mvn -B -f bench/pom.xml package && java -jar bench/target/benchmarks.jar
+//
+// main is a quick loop for a tree without Maven: warmup iterations (discarded, lets the
+// JIT settle) followed by measured iterations of a fixed wall-clock length, reported as
+// mean +- stddev ops/sec. Every workload folds its results into a sink so the JIT cannot
+// discard the work.
+//   java Bench                    run every benchmark
+//   java Bench movegen search     run benchmarks whose name contains any of the arguments
+//   java -Dbench.iterations=10 -Dbench.warmup=3 -Dbench.millis=2000 Bench
+public final class Bench {
+    interface Workload extends LongSupplier, AutoCloseable {
+        // Run one batch and return how many operations it performed
+        long getAsLong();
+
+        // Release whatever the workload holds (a window, for the render benchmark)
+        default void close() {}
+    }
+
+    // Every workload with the unit its operations are counted in
+    static final String[][] WORKLOADS = {
+        {"movegen.pseudo", "positions"},
+        {"movegen.legal", "positions"},
+        {"movegen.staged.hashMove", "positions"},
+        {"movegen.staged.captures", "positions"},
+        {"movegen.legal.makeTest", "positions"},
+        {"position.copy", "copies"},
+        {"position.copyMake", "moves"},
+        {"position.makeUnmake", "moves"},
+        {"eval.incremental", "positions"},
+        {"eval.fromScratch", "positions"},
+        {"perft.startpos.d4", "nodes"},
+        {"search.suite.d5", "nodes"},
+        {"render.paint", "boards"},
+        {"render.paint.move", "moves"},
+    };
+
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 5);
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 5);
+    private static final long MILLIS = Long.getLong("bench.millis", 1000);
+
+    static long sink;
+
+    private final List<String> filters;
+
+    Bench(String[] filters) {
+        this.filters = Arrays.asList(filters);
+    }
+
+    boolean selected(String name) {
+        if (filters.isEmpty()) {
+            return true;
+        }
+        for (String filter : filters) {
+            if (name.contains(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void run(String name, String unit, Workload workload) {
+        for (int i = 0; i < WARMUP; i++) {
+            iteration(workload);
+        }
+        double[] rates = new double[ITERATIONS];
+        double mean = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            rates[i] = iteration(workload);
+            mean += rates[i] / ITERATIONS;
+        }
+        double variance = 0;
+        for (double rate : rates) {
+            variance += (rate - mean) * (rate - mean) / Math.max(1, ITERATIONS - 1);
+        }
+        System.out.printf("%-28s %14.0f +- %10.0f %s/sec%n", name, mean, Math.sqrt(variance), unit);
+    }
+
+    private static double iteration(Workload workload) {
+        long ops = 0;
+        long start = System.nanoTime();
+        long deadline = start + MILLIS * 1_000_000L;
+        long now;
+        do {
+            ops += workload.getAsLong();
+            now = System.nanoTime();
+        } while (now < deadline);
+        return ops * 1e9 / (now - start);
+    }
+
+    static Position[] suitePositions() {
+        Position[] positions = new Position[Perft.SUITE_FENS.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = Position.fromFen(Perft.SUITE_FENS[i]);
+        }
+        return positions;
+    }
+
+    public static void main(String[] args) {
+        Bench bench = new Bench(args);
+        System.out.printf("%-28s %14s    %10s%n", "benchmark", "mean", "stddev");
+        for (String[] entry : WORKLOADS) {
+            if (!bench.selected(entry[0])) {
+                continue;
+            }
+            if (entry[0].startsWith("render.") && GraphicsEnvironment.isHeadless()) {
+                System.out.printf("%-28s skipped (headless)%n", entry[0]);
+                continue;
+            }
+            try (Workload workload = workload(entry[0])) {
+                bench.run(entry[0], entry[1], workload);
+            }
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    // Build the named workload with its own fixtures
+    static Workload workload(String name) {
+        Position[] positions = suitePositions();
+        int[] moves = new int[MoveGen.MAX_MOVES];
+        Position scratch = new Position();
+
+        switch (name) {
+            // Pseudo-legal generation, one op per position
+            case "movegen.pseudo":
+                return () -> {
+                    long sum = 0;
+                    for (Position pos : positions) {
+                        sum += MoveGen.generate(pos, moves);
+                    }
+                    sink += sum;
+                    return positions.length;
+                };
+
+            // Legal generation with pins and check evasions
+            case "movegen.legal":
+                return () -> {
+                    long sum = 0;
+                    for (Position pos : positions) {
+                        sum += MoveGen.generateLegal(pos, moves);
+                    }
+                    sink += sum;
+                    return positions.length;
+                };
+
+            // Staged generation as the search sees it at a cut node: with a hash move the
+            // generator never runs, otherwise often only the captures stage does
+            case "movegen.staged.hashMove": {
+                int[] hashMoves = new int[positions.length];
+                for (int i = 0; i < positions.length; i++) {
+                    MoveGen.generateLegal(positions[i], moves);
+                    hashMoves[i] = moves[0];
+                }
+                MovePicker picker = new MovePicker();
+                MoveOrdering ordering = new MoveOrdering();
+                return () -> {
+                    long sum = 0;
+                    for (int i = 0; i < positions.length; i++) {
+                        picker.init(positions[i], ordering, hashMoves[i], 0, Move.NONE);
+                        sum += picker.next();
+                    }
+                    sink += sum;
+                    return positions.length;
+                };
+            }
+
+            case "movegen.staged.captures":
+                return () -> {
+                    long sum = 0;
+                    for (Position pos : positions) {
+                        sum += MoveGen.generateLegal(pos, moves, MoveGen.CAPTURES);
+                    }
+                    sink += sum;
+                    return positions.length;
+                };
+
+            // The naive alternative: play every pseudo-legal move and test the king
+            case "movegen.legal.makeTest":
+                return () -> {
+                    long sum = 0;
+                    for (Position pos : positions) {
+                        int count = MoveGen.generate(pos, moves);
+                        scratch.copyFrom(pos);
+                        for (int i = 0; i < count; i++) {
+                            scratch.makeMove(moves[i]);
+                            if (!Attacks.inCheck(scratch, pos.sideToMove())) {
+                                sum++;
+                            }
+                            scratch.unmakeMove();
+                        }
+                    }
+                    sink += sum;
+                    return positions.length;
+                };
+
+            case "position.copy":
+                return () -> {
+                    for (Position pos : positions) {
+                        scratch.copyFrom(pos);
+                    }
+                    sink += scratch.occupied();
+                    return positions.length;
+                };
+
+            // Copy-make of every pseudo-legal move, one op per move played
+            case "position.copyMake":
+                return () -> {
+                    long played = 0;
+                    for (Position pos : positions) {
+                        int count = MoveGen.generate(pos, moves);
+                        for (int i = 0; i < count; i++) {
+                            scratch.copyFrom(pos);
+                            scratch.makeMove(moves[i]);
+                        }
+                        played += count;
+                    }
+                    sink += scratch.occupied();
+                    return played;
+                };
+
+            // Make/unmake of every pseudo-legal move on one position, one op per move played
+            case "position.makeUnmake":
+                return () -> {
+                    long played = 0;
+                    for (Position pos : positions) {
+                        int count = MoveGen.generate(pos, moves);
+                        scratch.copyFrom(pos);
+                        for (int i = 0; i < count; i++) {
+                            scratch.makeMove(moves[i]);
+                            scratch.unmakeMove();
+                        }
+                        played += count;
+                    }
+                    sink += scratch.hash();
+                    return played;
+                };
+
+            // Incremental evaluation against a full recompute, one op per position
+            case "eval.incremental":
+                return () -> {
+                    long sum = 0;
+                    for (Position pos : positions) {
+                        sum += Evaluation.evaluate(pos);
+                    }
+                    sink += sum;
+                    return positions.length;
+                };
+
+            case "eval.fromScratch":
+                return () -> {
+                    long sum = 0;
+                    for (Position pos : positions) {
+                        sum += Evaluation.evaluateFromScratch(pos);
+                    }
+                    sink += sum;
+                    return positions.length;
+                };
+
+            case "perft.startpos.d4": {
+                Perft perft = new Perft();
+                Position start = Position.fromFen(Position.START_FEN);
+                return () -> perft.perft(start, 4);
+            }
+
+            // Fixed-depth search over the suite positions
+            case "search.suite.d5": {
+                Search search = new Search();
+                return () -> {
+                    long searched = 0;
+                    for (Position pos : positions) {
+                        searched += search.search(pos, Search.Limits.depth(5)).nodes;
+                    }
+                    return searched;
+                };
+            }
+
+            // paint() of a real cg window into an offscreen image, one op per full board:
+            // every square is marked dirty first, so each op redraws all 64 tiles
+            case "render.paint":
+                return paintWorkload(cg::invalidateAll);
+
+            // The redraw after a move, one op per move: the from and to squares (g1, f3) and
+            // the squares that were highlighted while the knight was selected (f3, h3)
+            case "render.paint.move":
+                return paintWorkload(view -> view.markDirty(1L << 62 | 1L << 45 | 1L << 47));
+
+            default:
+                throw new IllegalArgumentException("No such workload: " + name);
+        }
+    }
+
+    // Each op dirties squares of the view and paints it once; the first paint, which builds
+    // the back buffer, happens before timing starts
+    private static Workload paintWorkload(Consumer<cg> dirty) {
+        cg view = new cg(false);
+        BufferedImage image = new BufferedImage(640, 640, BufferedImage.TYPE_INT_RGB);
+        Graphics2D first = image.createGraphics();
+        view.paint(first);
+        first.dispose();
+        return new Workload() {
+            public long getAsLong() {
+                dirty.accept(view);
+                Graphics2D g = image.createGraphics();
+                view.paint(g);
+                g.dispose();
+                return 1;
+            }
+
+            public void close() {
+                view.dispose();
+            }
+        };
+    }
+}
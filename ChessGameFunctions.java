@@ -0,0 +1,66 @@
+import javax.swing.*;
+
+// Game-state helpers for the Frame: move-count labels, the title after each move and the
+// end-of-game announcement.
+// The rules themselves (mate, stalemate, fifty moves, threefold repetition, dead
+// positions) are decided by Game; this class only reports them.
+public class ChessGameFunctions {
+    private final JLabel whiteScoreLabel;
+    private final JLabel blackScoreLabel;
+
+    public ChessGameFunctions(JLabel whiteScoreLabel, JLabel blackScoreLabel) {
+        this.whiteScoreLabel = whiteScoreLabel;
+        this.blackScoreLabel = blackScoreLabel;
+    }
+
+    // Refresh both labels from the game's own move counters
+    public void updateMoveCount(Game game) {
+        whiteScoreLabel.setText("White: " + game.moveCount(true) + " moves");
+        blackScoreLabel.setText("Black: " + game.moveCount(false) + " moves");
+    }
+
+    // Window title after a move; capturedPiece is the board letter taken, "." for none
+    public String moveText(String capturedPiece, boolean check) {
+        String text = "Chess Game";
+        if (!capturedPiece.equals(".")) {
+            String[] names = {"pawn", "knight", "bishop", "rook", "queen", "king"};
+            int piece = Piece.fromChar(capturedPiece.charAt(0));
+            text += " - " + (Piece.color(piece) == Piece.WHITE ? "white " : "black ")
+                + names[Piece.type(piece)] + " captured";
+        }
+        return check ? text + " - check" : text;
+    }
+
+    public boolean isGameOver(Game game) {
+        return game.isOver();
+    }
+
+    // Human-readable result, including why a drawn game ended
+    public String resultText(Game game) {
+        Position position = game.position();
+        switch (game.status()) {
+            case WHITE_WINS:
+                return "White wins";
+            case BLACK_WINS:
+                return "Black wins";
+            case DRAW:
+                if (position.halfmoveClock >= 100) {
+                    return "Draw by the fifty-move rule";
+                }
+                if (position.repetitionCount() >= 2) {
+                    return "Draw by threefold repetition";
+                }
+                if (position.hasInsufficientMaterial()) {
+                    return "Draw by insufficient material";
+                }
+                return "Draw by stalemate";
+            default:
+                return "Game in progress";
+        }
+    }
+
+    public void announceWinner(String result) {
+        System.out.println("Game over: " + result);
+        JOptionPane.showMessageDialog(null, result, "Game over", JOptionPane.INFORMATION_MESSAGE);
+    }
+}
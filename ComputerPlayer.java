@@ -0,0 +1,46 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Engine-backed player searching with LazySmp within the configured limits; plays from
+// the default opening book and tablebases (see OpeningBook/Tablebase.openDefault) when
+// the position is covered by them
+class ComputerPlayer extends Player {
+    private final LazySmp engine;
+    private final Search.Limits limits;
+    private EngineDriver driver; // created on first think(); only the window needs it
+
+    ComputerPlayer(boolean isWhite, Search.Limits limits, int threads, int hashMegabytes) {
+        super(isWhite);
+        this.engine = new LazySmp(threads, hashMegabytes);
+        this.engine.setBook(OpeningBook.openDefault());
+        this.engine.setTablebase(Tablebase.openDefault());
+        this.limits = limits;
+    }
+
+    // Blocking search; the window uses think() so the event thread stays responsive
+    @Override
+    int makeMove(Position position, AtomicBoolean stop) {
+        return search(position, stop).move;
+    }
+
+    // The search gives up once stop is set, like one cancelled through EngineDriver
+    Search.Result search(Position position, AtomicBoolean stop) {
+        return engine.search(position, limits.withStop(stop));
+    }
+
+    // Search on the driver's background thread; callbacks arrive on the AWT event thread
+    synchronized void think(Position position, EngineDriver.Callback callback) {
+        if (driver == null) {
+            driver = new EngineDriver(engine);
+        }
+        driver.think(position, limits, callback);
+    }
+
+    @Override
+    synchronized void shutdown() {
+        if (driver != null) {
+            driver.shutdown();
+        } else {
+            engine.shutdown();
+        }
+    }
+}
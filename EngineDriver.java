@@ -0,0 +1,98 @@
+import java.awt.EventQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Runs engine searches on a background thread so the caller (normally the AWT event
+// thread) never blocks. Progress and the final result are handed to a callback executor,
+// which defaults to the AWT event queue so listeners may touch Swing/AWT state directly.
+// Only one search runs at a time; starting a new one cancels the previous one.
+public final class EngineDriver {
+    public interface Callback {
+        // Called after every completed iteration of the main search thread
+        void onProgress(Search.Result progress);
+
+        // Called once with the move to play (never called for a cancelled search)
+        void onResult(Search.Result result);
+    }
+
+    private final LazySmp engine;
+    private final Executor callbacks;
+    private final ExecutorService worker;
+    private Future<?> current;
+    private AtomicBoolean currentStop; // stop token of the latest search
+    private volatile long generation; // bumped on cancel so late callbacks are dropped
+
+    public EngineDriver(LazySmp engine) {
+        this(engine, EventQueue::invokeLater);
+    }
+
+    public EngineDriver(LazySmp engine, Executor callbacks) {
+        this.engine = engine;
+        this.callbacks = callbacks;
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "engine-driver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Start searching a snapshot of the position; returns immediately
+    public synchronized void think(Position position, Search.Limits limits, Callback callback) {
+        cancel();
+        long id = generation;
+        Position root = position.copy();
+        // A token per search rather than engine.stop(): the engine clears its own stop flags
+        // when a search starts, which would swallow a cancel made while this task was queued
+        AtomicBoolean stop = new AtomicBoolean();
+        currentStop = stop;
+        Search.Limits stoppable = limits.withStop(stop);
+        current = worker.submit(() -> {
+            if (stop.get()) {
+                return; // cancelled before it started
+            }
+            engine.setListener(progress -> post(id, () -> callback.onProgress(progress)));
+            Search.Result result = engine.search(root, stoppable);
+            engine.setListener(null);
+            post(id, () -> callback.onResult(result));
+        });
+    }
+
+    // Stop the running search, if any, and discard its result
+    public synchronized void cancel() {
+        generation++;
+        if (currentStop != null) {
+            currentStop.set(true);
+            currentStop = null;
+        }
+        if (current != null) {
+            current.cancel(false);
+            current = null;
+        }
+    }
+
+    public synchronized boolean isThinking() {
+        return current != null && !current.isDone();
+    }
+
+    // Cancel any search and release every engine thread; the driver cannot be reused
+    public synchronized void shutdown() {
+        cancel();
+        worker.shutdownNow();
+        engine.shutdown();
+    }
+
+    private void post(long id, Runnable runnable) {
+        if (id != generation) {
+            return;
+        }
+        callbacks.execute(() -> {
+            // Re-check on the callback thread: a cancel may have happened in between
+            if (id == generation) {
+                runnable.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,170 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Display-independent game: the position, move validation, the two players and the result.
+// The Frame (cg) and the headless GameServer both drive games through this class.
+// A Game is not thread-safe; callers that share one between threads must synchronize on it.
+// The exception is shutdown(), which must not wait for a player that is still thinking.
+public final class Game {
+    public enum Status {
+        IN_PROGRESS, WHITE_WINS, BLACK_WINS, DRAW
+    }
+
+    private final Position position;
+    private final Player whitePlayer;
+    private final Player blackPlayer;
+    private final int[] moveBuffer = new int[MoveGen.MAX_MOVES];
+    private int[] history = new int[256];
+    private int historyLength;
+    private int whiteMoves;
+    private int blackMoves;
+    private Status status = Status.IN_PROGRESS;
+    private final AtomicBoolean closed = new AtomicBoolean(); // set by shutdown()
+
+    public Game(Player whitePlayer, Player blackPlayer) {
+        this(Position.fromFen(Position.START_FEN), whitePlayer, blackPlayer);
+    }
+
+    public Game(Position start, Player whitePlayer, Player blackPlayer) {
+        this.position = start.copy();
+        this.whitePlayer = whitePlayer;
+        this.blackPlayer = blackPlayer;
+        updateStatus();
+    }
+
+    // The live position; callers must not modify it
+    public Position position() {
+        return position;
+    }
+
+    Player whitePlayer() {
+        return whitePlayer;
+    }
+
+    Player blackPlayer() {
+        return blackPlayer;
+    }
+
+    Player playerToMove() {
+        return position.isWhiteToMove() ? whitePlayer : blackPlayer;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public boolean isOver() {
+        return status != Status.IN_PROGRESS;
+    }
+
+    // Shut down: the game will not be played any further
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    public int moveCount(boolean white) {
+        return white ? whiteMoves : blackMoves;
+    }
+
+    public int plyCount() {
+        return historyLength;
+    }
+
+    public int moveAt(int ply) {
+        return history[ply];
+    }
+
+    // Legal moves of the piece on 'from' for the side to move; returns the number written
+    public int legalMovesFrom(int from, int[] moves) {
+        return MoveGen.generateLegalFrom(position, from, moves);
+    }
+
+    // All legal moves for the side to move
+    public int legalMoves(int[] moves) {
+        return MoveGen.generateLegal(position, moves);
+    }
+
+    // The legal move matching from/to (and promotion type, 0 for queen or none), or Move.NONE
+    public int findMove(int from, int to, int promotion) {
+        int count = legalMovesFrom(from, moveBuffer);
+        for (int i = 0; i < count; i++) {
+            int move = moveBuffer[i];
+            if (Move.to(move) == to && (promotion == 0 || Move.promotion(move) == promotion)) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    // Parse coordinate notation such as "e2e4" or "e7e8n" into a legal move, or Move.NONE
+    public int parseMove(String text) {
+        if (text.length() < 4) {
+            return Move.NONE;
+        }
+        int from = parseSquare(text.charAt(0), text.charAt(1));
+        int to = parseSquare(text.charAt(2), text.charAt(3));
+        if (from < 0 || to < 0) {
+            return Move.NONE;
+        }
+        int promotion = text.length() > 4 ? Piece.type(Piece.fromChar(Character.toLowerCase(text.charAt(4)))) : 0;
+        return findMove(from, to, promotion);
+    }
+
+    private static int parseSquare(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return (file - 'a') + ('8' - rank) * 8;
+    }
+
+    // Play a move if it is legal and the game is still running; returns whether it was played
+    public boolean play(int move) {
+        if (isOver() || move == Move.NONE || findMove(Move.from(move), Move.to(move), Move.promotion(move)) != move) {
+            return false;
+        }
+        if (position.isWhiteToMove()) {
+            whiteMoves++;
+        } else {
+            blackMoves++;
+        }
+        position.makeMove(move);
+        if (historyLength == history.length) {
+            history = Arrays.copyOf(history, history.length * 2);
+        }
+        history[historyLength++] = move;
+        updateStatus();
+        return true;
+    }
+
+    // Let the player to move choose and play (blocks while a computer player searches).
+    // A choice cut short by shutdown() is not played.
+    public int playPlayerMove() {
+        int move = playerToMove().makeMove(position, closed);
+        return !closed.get() && play(move) ? move : Move.NONE;
+    }
+
+    // End the game early, e.g. by adjudication on the server
+    public void adjudicate(Status result) {
+        status = result;
+    }
+
+    private void updateStatus() {
+        if (legalMoves(moveBuffer) == 0) {
+            if (Attacks.inCheck(position, position.sideToMove())) {
+                status = position.isWhiteToMove() ? Status.BLACK_WINS : Status.WHITE_WINS;
+            } else {
+                status = Status.DRAW; // stalemate
+            }
+        } else if (position.halfmoveClock >= 100 || position.repetitionCount() >= 2
+                   || position.hasInsufficientMaterial()) {
+            status = Status.DRAW; // fifty-move rule, threefold repetition or dead position
+        }
+    }
+
+    // Close the game from any thread, stopping a player that is choosing a move
+    public void shutdown() {
+        closed.set(true);
+        whitePlayer.shutdown();
+        blackPlayer.shutdown();
+    }
+}
@@ -0,0 +1,143 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless game host: many concurrent games in one JVM with no Frame, images or toolkit.
+// Human moves arrive as coordinate strings; computer replies are searched on a shared
+// pool so a slow search never blocks the caller. Each game is guarded by its own monitor.
+//
+// Standalone self-play run (also reachable as `java cg --headless ...`):
+//   java GameServer [games] [millisPerMove] [maxPlies]
+public final class GameServer {
+    private final ConcurrentHashMap<Long, Game> games = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final ExecutorService engineThreads;
+    private final Search.Limits limits;
+    private final int hashMegabytes;
+
+    public GameServer(int engineThreadCount, Search.Limits limits, int hashMegabytes) {
+        this.engineThreads = Executors.newFixedThreadPool(engineThreadCount, runnable -> {
+            Thread thread = new Thread(runnable, "game-server-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.limits = limits;
+        this.hashMegabytes = hashMegabytes;
+    }
+
+    // Create a game; computer players search single-threaded since games run in parallel
+    public long newGame(boolean whiteComputer, boolean blackComputer) {
+        Player white = whiteComputer ? new ComputerPlayer(true, limits, 1, hashMegabytes) : new HumanPlayer(true);
+        Player black = blackComputer ? new ComputerPlayer(false, limits, 1, hashMegabytes) : new HumanPlayer(false);
+        long id = nextId.getAndIncrement();
+        games.put(id, new Game(white, black));
+        return id;
+    }
+
+    public Game game(long id) {
+        Game game = games.get(id);
+        if (game == null) {
+            throw new IllegalArgumentException("No such game: " + id);
+        }
+        return game;
+    }
+
+    public int gameCount() {
+        return games.size();
+    }
+
+    // Play a human move, then let any computer players reply; completes once a human is
+    // to move again or the game is over. Completes exceptionally if the move is illegal.
+    public CompletableFuture<Game.Status> move(long id, String move) {
+        Game game = game(id);
+        synchronized (game) {
+            if (!(game.playerToMove() instanceof HumanPlayer) || !game.play(game.parseMove(move))) {
+                CompletableFuture<Game.Status> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IllegalArgumentException("Illegal move in game " + id + ": " + move));
+                return failed;
+            }
+        }
+        return computerMoves(id);
+    }
+
+    // Let computer players move until a human is to move or the game ends
+    public CompletableFuture<Game.Status> computerMoves(long id) {
+        Game game = game(id);
+        return CompletableFuture.supplyAsync(() -> {
+            synchronized (game) {
+                while (!game.isOver() && !game.isClosed() && game.playerToMove() instanceof ComputerPlayer) {
+                    if (game.playPlayerMove() == Move.NONE) {
+                        break;
+                    }
+                }
+                return game.status();
+            }
+        }, engineThreads);
+    }
+
+    // Play a game between computer players to the end on one pool thread, adjudicating a
+    // draw after maxPlies; the result line describes how it finished. Closing the game
+    // stops it after the move being searched, which is not played.
+    public Future<String> playOut(long id, int maxPlies) {
+        Game game = game(id);
+        return engineThreads.submit(() -> {
+            synchronized (game) {
+                while (!game.isOver() && !game.isClosed() && game.plyCount() < maxPlies) {
+                    if (game.playPlayerMove() == Move.NONE) {
+                        break;
+                    }
+                }
+                if (game.isClosed() && !game.isOver()) {
+                    return "game " + id + ": closed after " + game.plyCount() + " plies, " + game.position().toFen();
+                }
+                if (!game.isOver()) {
+                    game.adjudicate(Game.Status.DRAW);
+                }
+                return "game " + id + ": " + game.status() + " after " + game.plyCount() + " plies, "
+                    + game.position().toFen();
+            }
+        });
+    }
+
+    // Stop and forget a game; a playOut or computerMoves running on it returns promptly
+    public void close(long id) {
+        Game game = games.remove(id);
+        if (game != null) {
+            game.shutdown();
+        }
+    }
+
+    // Close every game. Queued tasks still run (and return at once) so their futures complete.
+    public void shutdown() {
+        for (Long id : games.keySet()) {
+            close(id);
+        }
+        engineThreads.shutdown();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        int maxPlies = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int threads = Runtime.getRuntime().availableProcessors();
+        GameServer server = new GameServer(threads, Search.Limits.time(millis), 4);
+
+        long start = System.nanoTime();
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < gameCount; i++) {
+            long id = server.newGame(true, true);
+            // Each game plays out on one pool thread; as many run at once as there are threads
+            results.add(server.playOut(id, maxPlies));
+        }
+        for (Future<String> result : results) {
+            System.out.println(result.get());
+        }
+        System.out.printf("%d games on %d threads in %.1f s%n", gameCount, threads, (System.nanoTime() - start) / 1e9);
+        server.shutdown();
+    }
+}
@@ -0,0 +1,13 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class HumanPlayer extends Player {
+    HumanPlayer(boolean isWhite) {
+        super(isWhite);
+    }
+
+    @Override
+    int makeMove(Position position, AtomicBoolean stop) {
+        // Human player makes move (handled by mouse events or the server's move requests)
+        return Move.NONE;
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Lazy SMP parallel search: every thread runs its own iterative-deepening Search on the
+// same root, and they cooperate only through one shared transposition table (which is
+// safe to use without locks, see TranspositionTable). Helper threads skip alternate
+// depths so they fill the table ahead of the main thread instead of duplicating it.
+// The calling thread is the main thread; its result is the one returned.
+// With an opening book or tablebases set, positions found in them are answered without
+// searching; the tablebases are also probed inside the tree.
+public final class LazySmp {
+    private final TranspositionTable tt;
+    private final Search[] searches;
+    private final ExecutorService helpers;
+    private volatile OpeningBook book;
+    private volatile Tablebase tablebase;
+
+    public LazySmp(int threads, int hashMegabytes) {
+        this(threads, new TranspositionTable(hashMegabytes));
+    }
+
+    public LazySmp(int threads, TranspositionTable tt) {
+        this.tt = tt;
+        searches = new Search[Math.max(1, threads)];
+        for (int i = 0; i < searches.length; i++) {
+            searches[i] = new Search(tt);
+            searches[i].shared = true;
+            searches[i].helperIndex = i;
+        }
+        if (searches.length > 1) {
+            helpers = Executors.newFixedThreadPool(searches.length - 1, runnable -> {
+                Thread thread = new Thread(runnable, "search-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            helpers = null;
+        }
+    }
+
+    public int threads() {
+        return searches.length;
+    }
+
+    public TranspositionTable table() {
+        return tt;
+    }
+
+    public void setBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+        for (Search search : searches) {
+            search.setTablebase(tablebase);
+        }
+    }
+
+    public Search.Result search(Position root, Search.Limits limits) {
+        OpeningBook book = this.book;
+        int bookMove = book != null ? book.move(root) : Move.NONE;
+        if (bookMove != Move.NONE) {
+            return new Search.Result(bookMove, 0, 0, 0, 0, new int[] {bookMove}, 0, 0, 0);
+        }
+        Tablebase tablebase = this.tablebase;
+        if (tablebase != null && Long.bitCount(root.occupied()) <= tablebase.maxPieces()) {
+            Position scratch = root.copy();
+            int move = tablebase.bestMove(scratch);
+            if (move != Move.NONE) {
+                return new Search.Result(move, Tablebase.score(tablebase.probe(scratch), 0), 0, 0, 0,
+                    new int[] {move}, 0, 0, 0);
+            }
+        }
+        tt.newSearch();
+        for (Search search : searches) {
+            search.clearStop();
+        }
+
+        List<Future<Search.Result>> futures = new ArrayList<>();
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            // Helpers run until the main thread is done; only the main thread honours the limits
+            Search.Limits helperLimits = new Search.Limits();
+            helperLimits.millis = limits.millis;
+            helperLimits.stop = limits.stop;
+            futures.add(helpers.submit(() -> helper.search(root, helperLimits)));
+        }
+
+        Search.Result main = searches[0].search(root, limits);
+
+        long nodes = main.nodes;
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].stop();
+        }
+        for (Future<Search.Result> future : futures) {
+            try {
+                nodes += future.get().nodes;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        long probes = 0;
+        long hits = 0;
+        for (Search search : searches) {
+            probes += search.ttProbes();
+            hits += search.ttHits();
+        }
+        return new Search.Result(main.move, main.score, main.depth, nodes, main.millis, main.pv,
+            probes == 0 ? 0 : (double) hits / probes, tt.hashfull(), main.firstMoveCutoffRate);
+    }
+
+    // Progress of the main thread; helper iterations are not reported
+    public void setListener(Search.Listener listener) {
+        searches[0].setListener(listener);
+    }
+
+    public void setOptions(Search.Options options) {
+        for (Search search : searches) {
+            search.setOptions(options);
+        }
+    }
+
+    // Stop every thread of a running search (safe from any thread)
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    public void shutdown() {
+        stop();
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    // Compare thread counts at a fixed time per position
+    //   java LazySmp [millis] [threads...]
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 5000;
+        int[] threadCounts = args.length > 1
+            ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+            : new int[] {1, Runtime.getRuntime().availableProcessors()};
+        for (int threads : threadCounts) {
+            LazySmp smp = new LazySmp(threads, 256);
+            long nodes = 0;
+            long time = 0;
+            int depth = 0;
+            double hitRate = 0;
+            int hashfull = 0;
+            for (String fen : Perft.SUITE_FENS) {
+                smp.table().clear();
+                Search.Result result = smp.search(Position.fromFen(fen), Search.Limits.time(millis));
+                nodes += result.nodes;
+                time += result.millis;
+                depth += result.depth;
+                hitRate += result.hashHitRate;
+                hashfull = Math.max(hashfull, result.hashfull);
+            }
+            // Hit rate says whether the table pays off, hashfull whether it is big enough
+            System.out.printf("threads %3d: %12d nodes/sec, average depth %.1f, hash hits %.1f%%,"
+                + " hashfull up to %.1f%%%n",
+                threads, nodes * 1000 / Math.max(1, time), (double) depth / Perft.SUITE_FENS.length,
+                hitRate * 100 / Perft.SUITE_FENS.length, hashfull / 10.0);
+            smp.shutdown();
+        }
+    }
+}
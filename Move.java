@@ -0,0 +1,78 @@
+// Packed int encoding of a move so move lists can live in plain int[] buffers.
+//   bits  0-5   from square
+//   bits  6-11  to square
+//   bits 12-15  promotion piece type (Piece.KNIGHT..Piece.QUEEN), 0 if none
+//   bits 16-19  flags
+// The value 0 (a8 to a8) never occurs as a real move and is used as "no move".
+public final class Move {
+    public static final int NONE = 0;
+
+    // Flags
+    public static final int CAPTURE = 1;
+    public static final int DOUBLE_PUSH = 2;
+    public static final int EN_PASSANT = 4;
+    public static final int CASTLING = 8;
+
+    private Move() {}
+
+    public static int encode(int from, int to, int promotion, int flags) {
+        return from | (to << 6) | (promotion << 12) | (flags << 16);
+    }
+
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 16);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int promotion(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    public static int flags(int move) {
+        return move >>> 16;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & (CAPTURE << 16)) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (15 << 12)) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & (EN_PASSANT << 16)) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & (DOUBLE_PUSH << 16)) != 0;
+    }
+
+    public static boolean isCastling(int move) {
+        return (move & (CASTLING << 16)) != 0;
+    }
+
+    // Square name in algebraic notation, e.g. 60 -> "e1"
+    public static String squareName(int sq) {
+        return "" + (char) ('a' + (sq & 7)) + (char) ('8' - (sq >> 3));
+    }
+
+    // Coordinate notation, e.g. "e2e4" or "e7e8q"
+    public static String toString(int move) {
+        if (move == NONE) {
+            return "0000";
+        }
+        String s = squareName(from(move)) + squareName(to(move));
+        if (isPromotion(move)) {
+            s += Character.toLowerCase(Piece.toChar(promotion(move)));
+        }
+        return s;
+    }
+}
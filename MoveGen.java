@@ -0,0 +1,358 @@
+// Move generator writing packed moves (see Move) into caller-supplied buffers.
+// Nothing is allocated per call, so one int[MAX_MOVES] per ply is enough for a whole search.
+//
+// generate() is pseudo-legal (may leave the own king in check). generateLegal() is fully
+// legal without playing the moves: it uses the checkers of the king to restrict targets
+// (capture the checker or block the line), pinned-piece masks to keep pinned pieces on
+// their pin line, and attack maps with the king removed for king moves. Only en passant,
+// which can expose the king along the rank of both pawns, is verified by make/unmake.
+// Castling is always generated fully checked (rights, empty squares, no attacked square
+// on the king's path), by both generators.
+//
+// The legal generator can also produce one kind of move at a time (captures and
+// promotions, or the remaining quiet moves) so MovePicker can generate in stages and
+// skip the quiets entirely when a capture cuts off. isLegal() validates single moves
+// such as hash moves and killers without generating anything.
+public final class MoveGen {
+    // No legal chess position has more than 218 moves
+    public static final int MAX_MOVES = 256;
+
+    // Kinds of moves for generateLegal; promotions count as captures
+    public static final int CAPTURES = 1;
+    public static final int QUIETS = 2;
+    public static final int ALL_MOVES = CAPTURES | QUIETS;
+
+    private static final long ALL = ~0L;
+
+    private MoveGen() {}
+
+    // All pseudo-legal moves for the side to move; returns the number written
+    public static int generate(Position pos, int[] moves) {
+        int count = 0;
+        int us = pos.sideToMove();
+        for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+            long bb = pos.pieces[Piece.make(us, type)];
+            while (bb != 0) {
+                int from = Long.numberOfTrailingZeros(bb);
+                bb &= bb - 1;
+                count = generatePiece(pos, type, us, from, ALL, moves, count);
+            }
+        }
+        return generateCastling(pos, us, moves, count);
+    }
+
+    // Pseudo-legal moves of the piece standing on 'from'
+    public static int generateFrom(Position pos, int from, int[] moves) {
+        int piece = pos.squares[from];
+        if (piece == Piece.NONE || Piece.color(piece) != pos.sideToMove()) {
+            return 0;
+        }
+        int count = generatePiece(pos, Piece.type(piece), Piece.color(piece), from, ALL, moves, 0);
+        return Piece.type(piece) == Piece.KING ? generateCastling(pos, Piece.color(piece), moves, count) : count;
+    }
+
+    // All legal moves for the side to move; returns the number written (0 means mate or stalemate)
+    public static int generateLegal(Position pos, int[] moves) {
+        return generateLegal(pos, moves, ALL_MOVES);
+    }
+
+    // Legal moves of the given kind (CAPTURES, QUIETS or ALL_MOVES)
+    public static int generateLegal(Position pos, int[] moves, int kind) {
+        int us = pos.sideToMove();
+        int them = us ^ 1;
+        long king = pos.pieces[Piece.make(us, Piece.KING)];
+        if (king == 0) {
+            return generate(pos, moves); // king-less test positions: nothing to protect
+        }
+        int kingSquare = Long.numberOfTrailingZeros(king);
+        long checkers = Attacks.attackersTo(pos, kingSquare, pos.occupied) & pos.colors[them];
+        long kindMask = ((kind & CAPTURES) != 0 ? pos.colors[them] : 0) | ((kind & QUIETS) != 0 ? ~pos.occupied : 0);
+
+        int count = generateKing(pos, us, kingSquare, kindMask, moves, 0);
+        if ((checkers & (checkers - 1)) != 0) {
+            return count; // double check: only the king can move
+        }
+
+        if (checkers == 0 && (kind & QUIETS) != 0) {
+            count = generateCastling(pos, us, moves, count);
+        }
+
+        // In check, other pieces must capture the checker or step between it and the king
+        long allowed = checkers == 0 ? ALL
+            : checkers | Attacks.BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)];
+        long pinned = pinned(pos, us, kingSquare);
+
+        long bb = pos.pieces[Piece.make(us, Piece.PAWN)];
+        while (bb != 0) {
+            int from = Long.numberOfTrailingZeros(bb);
+            bb &= bb - 1;
+            long mask = (pinned & (1L << from)) != 0 ? allowed & Attacks.LINE[kingSquare][from] : allowed;
+            count = generatePawn(pos, us, from, mask, kind, true, moves, count);
+        }
+        for (int type = Piece.KNIGHT; type < Piece.KING; type++) {
+            bb = pos.pieces[Piece.make(us, type)];
+            while (bb != 0) {
+                int from = Long.numberOfTrailingZeros(bb);
+                bb &= bb - 1;
+                long mask = (pinned & (1L << from)) != 0 ? allowed & Attacks.LINE[kingSquare][from] : allowed;
+                count = generatePiece(pos, type, us, from, mask & kindMask, moves, count);
+            }
+        }
+        return count;
+    }
+
+    // Whether a move (typically from the hash table or a killer slot, so possibly from
+    // another position) is legal here. Cheap enough to call per node for a few moves.
+    public static boolean isLegal(Position pos, int move) {
+        if (!isPseudoLegal(pos, move)) {
+            return false;
+        }
+        if (Move.isCastling(move)) {
+            return true; // generateCastling already checked every attacked square
+        }
+        int us = pos.sideToMove();
+        pos.makeMove(move);
+        boolean legal = !Attacks.inCheck(pos, us);
+        pos.unmakeMove();
+        return legal;
+    }
+
+    // Whether the move is one generate() would produce in this position
+    static boolean isPseudoLegal(Position pos, int move) {
+        if (move == Move.NONE) {
+            return false;
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = pos.squares[from];
+        int us = pos.sideToMove();
+        if (piece == Piece.NONE || Piece.color(piece) != us) {
+            return false;
+        }
+        int type = Piece.type(piece);
+        long toBit = 1L << to;
+        if (Move.isCastling(move)) {
+            int king = us == Piece.WHITE ? 60 : 4;
+            return from == king && (to == king + 2 || to == king - 2) && move == Move.encode(from, to, Move.CASTLING)
+                && canCastle(pos, us, to > from);
+        }
+        if (Move.isEnPassant(move)) {
+            return type == Piece.PAWN && to == pos.epSquare && (Attacks.PAWN[us][from] & toBit) != 0
+                && move == Move.encode(from, to, Move.CAPTURE | Move.EN_PASSANT);
+        }
+        if ((Move.flags(move) & ~(Move.CAPTURE | Move.DOUBLE_PUSH)) != 0
+            || (Move.isPromotion(move) && (Move.promotion(move) < Piece.KNIGHT || Move.promotion(move) > Piece.QUEEN))) {
+            return false;
+        }
+        int target = pos.squares[to];
+        if (Move.isCapture(move) != (target != Piece.NONE) || (target != Piece.NONE && Piece.color(target) == us)) {
+            return false;
+        }
+        if (type == Piece.PAWN) {
+            if ((to < 8 || to >= 56) != Move.isPromotion(move)) {
+                return false;
+            }
+            if (Move.isCapture(move)) {
+                return (Attacks.PAWN[us][from] & toBit) != 0 && !Move.isDoublePush(move);
+            }
+            int step = us == Piece.WHITE ? -8 : 8;
+            if (Move.isDoublePush(move)) {
+                return (from >> 3) == (us == Piece.WHITE ? 6 : 1) && to == from + 2 * step
+                    && pos.squares[from + step] == Piece.NONE;
+            }
+            return to == from + step;
+        }
+        if (Move.isPromotion(move) || Move.isDoublePush(move)) {
+            return false;
+        }
+        long attacks;
+        switch (type) {
+            case Piece.KNIGHT: attacks = Attacks.KNIGHT[from]; break;
+            case Piece.BISHOP: attacks = Attacks.bishop(from, pos.occupied); break;
+            case Piece.ROOK: attacks = Attacks.rook(from, pos.occupied); break;
+            case Piece.QUEEN: attacks = Attacks.queen(from, pos.occupied); break;
+            default: attacks = Attacks.KING[from]; break;
+        }
+        return (attacks & toBit) != 0;
+    }
+
+    // Legal moves of the piece standing on 'from' (used by the view to highlight targets)
+    public static int generateLegalFrom(Position pos, int from, int[] moves) {
+        int count = generateLegal(pos, moves);
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (Move.from(moves[i]) == from) {
+                moves[kept++] = moves[i];
+            }
+        }
+        return kept;
+    }
+
+    // Our pieces that are the only blocker between our king and an enemy slider
+    static long pinned(Position pos, int us, int kingSquare) {
+        int base = (us ^ 1) * 6;
+        long[] p = pos.pieces;
+        long snipers = (Attacks.rook(kingSquare, 0) & (p[base + Piece.ROOK] | p[base + Piece.QUEEN]))
+            | (Attacks.bishop(kingSquare, 0) & (p[base + Piece.BISHOP] | p[base + Piece.QUEEN]));
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.BETWEEN[kingSquare][sniper] & pos.occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & pos.colors[us];
+            }
+        }
+        return pinned;
+    }
+
+    // King steps to squares that are not attacked once the king has left its square
+    private static int generateKing(Position pos, int us, int from, long kindMask, int[] moves, int count) {
+        long occupied = pos.occupied ^ (1L << from);
+        long targets = Attacks.KING[from] & ~pos.colors[us] & kindMask;
+        long them = pos.colors[us ^ 1];
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (!Attacks.isAttacked(pos, to, us ^ 1, occupied)) {
+                moves[count++] = Move.encode(from, to, (them & (1L << to)) != 0 ? Move.CAPTURE : 0);
+            }
+        }
+        return count;
+    }
+
+    // King two squares towards a rook; the rook jump is handled by Position.makeMove
+    private static int generateCastling(Position pos, int us, int[] moves, int count) {
+        int rights = pos.castling & (us == Piece.WHITE ? Position.WHITE_KING_SIDE | Position.WHITE_QUEEN_SIDE
+            : Position.BLACK_KING_SIDE | Position.BLACK_QUEEN_SIDE);
+        if (rights == 0) {
+            return count;
+        }
+        int king = us == Piece.WHITE ? 60 : 4;
+        if (canCastle(pos, us, true)) {
+            moves[count++] = Move.encode(king, king + 2, Move.CASTLING);
+        }
+        if (canCastle(pos, us, false)) {
+            moves[count++] = Move.encode(king, king - 2, Move.CASTLING);
+        }
+        return count;
+    }
+
+    private static boolean canCastle(Position pos, int us, boolean kingSide) {
+        int right = us == Piece.WHITE
+            ? (kingSide ? Position.WHITE_KING_SIDE : Position.WHITE_QUEEN_SIDE)
+            : (kingSide ? Position.BLACK_KING_SIDE : Position.BLACK_QUEEN_SIDE);
+        int king = us == Piece.WHITE ? 60 : 4;
+        int rook = kingSide ? king + 3 : king - 4;
+        int step = kingSide ? 1 : -1;
+        int them = us ^ 1;
+        return (pos.castling & right) != 0
+            && pos.squares[king] == Piece.make(us, Piece.KING)
+            && pos.squares[rook] == Piece.make(us, Piece.ROOK)
+            && (pos.occupied & Attacks.BETWEEN[king][rook]) == 0
+            && !Attacks.isAttacked(pos, king, them)
+            && !Attacks.isAttacked(pos, king + step, them)
+            && !Attacks.isAttacked(pos, king + 2 * step, them);
+    }
+
+    // Moves of one piece whose destination lies in 'allowed'. Pawn and king moves from here
+    // are pseudo-legal; the legal generator handles pawns and the king separately.
+    private static int generatePiece(Position pos, int type, int us, int from, long allowed, int[] moves,
+                                     int count) {
+        long occupied = pos.occupied;
+        long targets;
+        switch (type) {
+            case Piece.PAWN:
+                return generatePawn(pos, us, from, allowed, ALL_MOVES, false, moves, count);
+            case Piece.KNIGHT:
+                targets = Attacks.KNIGHT[from];
+                break;
+            case Piece.BISHOP:
+                targets = Attacks.bishop(from, occupied);
+                break;
+            case Piece.ROOK:
+                targets = Attacks.rook(from, occupied);
+                break;
+            case Piece.QUEEN:
+                targets = Attacks.queen(from, occupied);
+                break;
+            default:
+                targets = Attacks.KING[from];
+                break;
+        }
+        targets &= ~pos.colors[us] & allowed;
+        long captures = targets & pos.colors[us ^ 1];
+        long quiets = targets & ~captures;
+        while (captures != 0) {
+            moves[count++] = Move.encode(from, Long.numberOfTrailingZeros(captures), Move.CAPTURE);
+            captures &= captures - 1;
+        }
+        while (quiets != 0) {
+            moves[count++] = Move.encode(from, Long.numberOfTrailingZeros(quiets), 0);
+            quiets &= quiets - 1;
+        }
+        return count;
+    }
+
+    // Pawn moves of the given kind; promotions, even without a capture, count as captures
+    private static int generatePawn(Position pos, int us, int from, long allowed, int kind, boolean legal,
+                                    int[] moves, int count) {
+        int to = us == Piece.WHITE ? from - 8 : from + 8;
+        if (to < 0 || to > 63) {
+            return count;
+        }
+        boolean promotes = to < 8 || to >= 56;
+
+        // Captures, including en passant
+        if ((kind & CAPTURES) != 0) {
+            long attacks = Attacks.PAWN[us][from];
+            long captures = attacks & pos.colors[us ^ 1] & allowed;
+            while (captures != 0) {
+                count = addPawnMove(from, Long.numberOfTrailingZeros(captures), Move.CAPTURE, promotes, moves, count);
+                captures &= captures - 1;
+            }
+            if (pos.epSquare != Position.NO_SQUARE && (attacks & (1L << pos.epSquare)) != 0) {
+                int move = Move.encode(from, pos.epSquare, Move.CAPTURE | Move.EN_PASSANT);
+                if (!legal || isLegalEnPassant(pos, us, move)) {
+                    moves[count++] = move;
+                }
+            }
+        }
+
+        // Pushes
+        if ((pos.occupied & (1L << to)) == 0) {
+            if ((allowed & (1L << to)) != 0 && (kind & (promotes ? CAPTURES : QUIETS)) != 0) {
+                count = addPawnMove(from, to, 0, promotes, moves, count);
+            }
+            int startRow = us == Piece.WHITE ? 6 : 1;
+            if ((from >> 3) == startRow && (kind & QUIETS) != 0) {
+                int to2 = us == Piece.WHITE ? to - 8 : to + 8;
+                if ((pos.occupied & (1L << to2)) == 0 && (allowed & (1L << to2)) != 0) {
+                    moves[count++] = Move.encode(from, to2, Move.DOUBLE_PUSH);
+                }
+            }
+        }
+        return count;
+    }
+
+    // En passant removes two pawns from one rank at once, so check it by playing it
+    private static boolean isLegalEnPassant(Position pos, int us, int move) {
+        pos.makeMove(move);
+        boolean legal = !Attacks.inCheck(pos, us);
+        pos.unmakeMove();
+        return legal;
+    }
+
+    private static int addPawnMove(int from, int to, int flags, boolean promotes, int[] moves, int count) {
+        if (promotes) {
+            // Queen first so callers that only take the first match promote to a queen
+            moves[count++] = Move.encode(from, to, Piece.QUEEN, flags);
+            moves[count++] = Move.encode(from, to, Piece.ROOK, flags);
+            moves[count++] = Move.encode(from, to, Piece.BISHOP, flags);
+            moves[count++] = Move.encode(from, to, Piece.KNIGHT, flags);
+        } else {
+            moves[count++] = Move.encode(from, to, flags);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,128 @@
+// Move ordering for the search. Moves are scored in place in a parallel int[] and picked
+// one at a time with a partial selection sort, so a node that cuts off after one or two
+// moves never pays for sorting the rest.
+//
+// Order: hash move, captures by MVV-LVA (most valuable victim, then least valuable
+// attacker), killers (quiet moves that cut off at the same ply), the countermove to the
+// opponent's last move, then the remaining quiets by history score. MovePicker walks
+// these stages; this class holds the scores and the tables behind them.
+// One instance belongs to one Search thread; the tables are not shared.
+final class MoveOrdering {
+    static final int CAPTURE_SCORE = 1 << 28;
+    static final int HISTORY_MAX = 1 << 20;
+
+    private final int[][] killers = new int[Search.MAX_PLY][2];
+    private final int[][] history = new int[Piece.COUNT][64];      // [moving piece][to]
+    private final int[][] countermoves = new int[Piece.COUNT][64]; // [piece that moved][to]
+
+    // Cutoff statistics: how often the first move searched was the one that failed high
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    // Forget killers between searches; history is halved so it stays relevant but fresh
+    void newSearch() {
+        for (int[] pair : killers) {
+            pair[0] = Move.NONE;
+            pair[1] = Move.NONE;
+        }
+        for (int[] row : history) {
+            for (int sq = 0; sq < 64; sq++) {
+                row[sq] >>= 1;
+            }
+        }
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+    }
+
+    // MVV-LVA; promotions count as winning the promoted piece minus the pawn
+    static int captureScore(Position pos, int move) {
+        int attacker = Piece.type(pos.squares[Move.from(move)]);
+        int victim = Move.isEnPassant(move) ? Piece.PAWN
+            : Move.isCapture(move) ? Piece.type(pos.squares[Move.to(move)]) : -1;
+        int gain = victim >= 0 ? Evaluation.PIECE_VALUES[victim] : 0;
+        if (Move.isPromotion(move)) {
+            gain += Evaluation.PIECE_VALUES[Move.promotion(move)] - Evaluation.PIECE_VALUES[Piece.PAWN];
+        }
+        return CAPTURE_SCORE + gain * 8 - attacker;
+    }
+
+    static boolean isTactical(int move) {
+        return Move.isCapture(move) || Move.isPromotion(move);
+    }
+
+    // Swap the best-scored move of [index, count) into 'index' and return it
+    static int pick(int[] moves, int[] scores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        int score = scores[best];
+        moves[best] = moves[index];
+        scores[best] = scores[index];
+        moves[index] = move;
+        scores[index] = score;
+        return move;
+    }
+
+    int killer(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    int counterTo(Position pos, int previous) {
+        if (previous == Move.NONE) {
+            return Move.NONE;
+        }
+        int piece = pos.squares[Move.to(previous)];
+        return piece == Piece.NONE ? Move.NONE : countermoves[piece][Move.to(previous)];
+    }
+
+    int history(Position pos, int move) {
+        return history[pos.squares[Move.from(move)]][Move.to(move)];
+    }
+
+    // A move failed high. 'index' is its position in the search order; quiet moves tried
+    // before it (quiets[0..quietCount)) had their chance and are penalised.
+    void onCutoff(Position pos, int move, int index, int ply, int depth, int previous,
+                  int[] quiets, int quietCount) {
+        cutoffs++;
+        if (index == 0) {
+            firstMoveCutoffs++;
+        }
+        if (isTactical(move)) {
+            return;
+        }
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int bonus = Math.min(depth * depth, 400);
+        updateHistory(pos, move, bonus);
+        for (int i = 0; i < quietCount; i++) {
+            if (quiets[i] != move) {
+                updateHistory(pos, quiets[i], -bonus);
+            }
+        }
+        if (previous != Move.NONE) {
+            int piece = pos.squares[Move.to(previous)];
+            if (piece != Piece.NONE) {
+                countermoves[piece][Move.to(previous)] = move;
+            }
+        }
+    }
+
+    // Gravity update: entries saturate towards +-HISTORY_MAX instead of overflowing
+    private void updateHistory(Position pos, int move, int bonus) {
+        int[] row = history[pos.squares[Move.from(move)]];
+        int to = Move.to(move);
+        row[to] += bonus * 32 - (int) ((long) row[to] * Math.abs(bonus) / 512);
+        row[to] = Math.max(-HISTORY_MAX, Math.min(HISTORY_MAX, row[to]));
+    }
+
+    // Share of beta cutoffs produced by the first move searched; above 0.9 is good ordering
+    double firstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+}
@@ -0,0 +1,140 @@
+// Staged move supplier for one search node. Moves are produced in the order the search
+// wants them and each stage is generated only when the previous one is used up:
+//   hash move -> captures and promotions (MVV-LVA) -> killers -> countermove -> quiets (history)
+// A node that cuts off on the hash move never runs the generator at all, and one that
+// cuts off on a capture never generates quiet moves. Moves handed out by an earlier
+// stage are skipped in later ones. Every move returned is legal.
+//
+// The search keeps one picker per ply, so nothing is allocated per node. In quiescence
+// the picker stops after the captures stage unless the side to move is in check.
+final class MovePicker {
+    private static final int HASH = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int CAPTURES = 2;
+    private static final int KILLER_1 = 3;
+    private static final int KILLER_2 = 4;
+    private static final int COUNTERMOVE = 5;
+    private static final int GENERATE_QUIETS = 6;
+    private static final int QUIETS = 7;
+    private static final int DONE = 8;
+
+    private final int[] moves = new int[MoveGen.MAX_MOVES];
+    private final int[] scores = new int[MoveGen.MAX_MOVES];
+    private Position pos;
+    private MoveOrdering ordering;
+    private int stage;
+    private int count;
+    private int index;
+    private int hashMove;
+    private int killer1;
+    private int killer2;
+    private int counter;
+    private boolean capturesOnly;
+
+    // Prepare for a node; 'previous' is the move that led to it (Move.NONE at the root)
+    void init(Position pos, MoveOrdering ordering, int hashMove, int ply, int previous) {
+        this.pos = pos;
+        this.ordering = ordering;
+        this.hashMove = hashMove;
+        killer1 = ordering.killer(ply, 0);
+        killer2 = ordering.killer(ply, 1);
+        counter = ordering.counterTo(pos, previous);
+        capturesOnly = false;
+        stage = HASH;
+    }
+
+    // Prepare for a quiescence node: captures and promotions only, or every evasion in check
+    void initQuiescence(Position pos, MoveOrdering ordering, boolean inCheck) {
+        this.pos = pos;
+        this.ordering = ordering;
+        hashMove = Move.NONE;
+        killer1 = Move.NONE;
+        killer2 = Move.NONE;
+        counter = Move.NONE;
+        capturesOnly = !inCheck;
+        stage = GENERATE_CAPTURES;
+    }
+
+    // The next move to search, or Move.NONE when every legal move has been returned
+    int next() {
+        while (true) {
+            switch (stage) {
+                case HASH:
+                    stage = GENERATE_CAPTURES;
+                    if (hashMove != Move.NONE && MoveGen.isLegal(pos, hashMove)) {
+                        return hashMove;
+                    }
+                    hashMove = Move.NONE;
+                    break;
+                case GENERATE_CAPTURES:
+                    count = MoveGen.generateLegal(pos, moves, MoveGen.CAPTURES);
+                    for (int i = 0; i < count; i++) {
+                        scores[i] = MoveOrdering.captureScore(pos, moves[i]);
+                    }
+                    index = 0;
+                    stage = CAPTURES;
+                    break;
+                case CAPTURES:
+                    while (index < count) {
+                        int move = MoveOrdering.pick(moves, scores, index++, count);
+                        if (move != hashMove) {
+                            return move;
+                        }
+                    }
+                    stage = capturesOnly ? DONE : KILLER_1;
+                    break;
+                case KILLER_1:
+                    stage = KILLER_2;
+                    if (isFreshQuiet(killer1, false)) {
+                        return killer1;
+                    }
+                    killer1 = Move.NONE;
+                    break;
+                case KILLER_2:
+                    stage = COUNTERMOVE;
+                    if (killer2 != killer1 && isFreshQuiet(killer2, false)) {
+                        return killer2;
+                    }
+                    killer2 = Move.NONE;
+                    break;
+                case COUNTERMOVE:
+                    stage = GENERATE_QUIETS;
+                    if (counter != killer1 && counter != killer2 && isFreshQuiet(counter, false)) {
+                        return counter;
+                    }
+                    counter = Move.NONE;
+                    break;
+                case GENERATE_QUIETS:
+                    count = MoveGen.generateLegal(pos, moves, MoveGen.QUIETS);
+                    for (int i = 0; i < count; i++) {
+                        scores[i] = ordering.history(pos, moves[i]);
+                    }
+                    index = 0;
+                    stage = QUIETS;
+                    break;
+                case QUIETS:
+                    while (index < count) {
+                        int move = MoveOrdering.pick(moves, scores, index++, count);
+                        if (isFreshQuiet(move, true)) {
+                            return move;
+                        }
+                    }
+                    stage = DONE;
+                    break;
+                default:
+                    return Move.NONE;
+            }
+        }
+    }
+
+    // A quiet move not yet handed out; generated moves are known legal, the stored ones are not
+    private boolean isFreshQuiet(int move, boolean generated) {
+        if (move == Move.NONE || move == hashMove || MoveOrdering.isTactical(move)) {
+            return false;
+        }
+        if (generated) {
+            return move != killer1 && move != killer2 && move != counter;
+        }
+        return MoveGen.isLegal(pos, move);
+    }
+}
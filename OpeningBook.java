@@ -0,0 +1,224 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Opening book stored as a sorted binary file and read through a read-only memory
+// mapping, so lookups copy nothing and every game in the JVM shares the same pages.
+//
+// The record layout is Polyglot's: 16 bytes, big-endian, sorted by key
+//   key (8 bytes)  move (2)  weight (2)  learn (4, unused)
+// with the Polyglot move encoding (to file bits 0-2, to rank 3-5, from file 6-8,
+// from rank 9-11, promotion 12-14 as 1=N..4=Q; castling written as king takes rook).
+// Keys are our own Zobrist hashes rather than Polyglot's key table, so books are built
+// with this class from lines of moves:
+//   java OpeningBook build lines.txt book.bin    one line of coordinate moves per game
+//   java OpeningBook probe book.bin [fen]        list the book moves for a position
+public final class OpeningBook {
+    static final int ENTRY_BYTES = 16;
+
+    private static final ConcurrentHashMap<Path, OpeningBook> OPEN = new ConcurrentHashMap<>();
+
+    private final MappedByteBuffer entries;
+    private final int count;
+
+    private OpeningBook(MappedByteBuffer entries) {
+        this.entries = entries;
+        this.count = entries.capacity() / ENTRY_BYTES;
+    }
+
+    // Map a book file, or return the mapping already shared by the JVM
+    public static OpeningBook open(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        OpeningBook book = OPEN.get(key);
+        if (book != null) {
+            return book;
+        }
+        try (FileChannel channel = FileChannel.open(key)) {
+            long size = channel.size() - channel.size() % ENTRY_BYTES;
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Opening book too large: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            book = new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+        OpeningBook previous = OPEN.putIfAbsent(key, book);
+        return previous != null ? previous : book;
+    }
+
+    // The book named by -Dchess.book (default book.bin in the working directory), or null
+    // when there is no such file
+    public static OpeningBook openDefault() {
+        Path file = Paths.get(System.getProperty("chess.book", "book.bin"));
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return open(file);
+        } catch (IOException e) {
+            System.err.println("Opening book unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // A book move for the position chosen at random in proportion to its weight, or
+    // Move.NONE when the position is not in the book. Safe from any thread: only
+    // absolute reads are used on the shared buffer.
+    public int move(Position pos) {
+        long key = pos.hash();
+        int first = lowerBound(key);
+        int total = 0;
+        int end = first;
+        while (end < count && keyAt(end) == key) {
+            total += weightAt(end);
+            end++;
+        }
+        if (end == first) {
+            return Move.NONE;
+        }
+        int pick = total > 0 ? ThreadLocalRandom.current().nextInt(total) : 0;
+        for (int i = first; i < end; i++) {
+            pick -= weightAt(i);
+            if (pick < 0 || i == end - 1) {
+                int move = decode(pos, moveAt(i));
+                if (move != Move.NONE) {
+                    return move;
+                }
+            }
+        }
+        return Move.NONE;
+    }
+
+    // All book entries for the position as "move weight" lines, for inspection
+    public List<String> entries(Position pos) {
+        List<String> lines = new ArrayList<>();
+        long key = pos.hash();
+        for (int i = lowerBound(key); i < count && keyAt(i) == key; i++) {
+            lines.add(Move.toString(decode(pos, moveAt(i))) + " " + weightAt(i));
+        }
+        return lines;
+    }
+
+    // Index of the first entry whose key is not below 'key' (keys compare unsigned)
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return entries.getLong(index * ENTRY_BYTES);
+    }
+
+    private int moveAt(int index) {
+        return entries.getShort(index * ENTRY_BYTES + 8) & 0xFFFF;
+    }
+
+    private int weightAt(int index) {
+        return entries.getShort(index * ENTRY_BYTES + 10) & 0xFFFF;
+    }
+
+    // Polyglot move -> the matching legal move, or Move.NONE if it is not legal here
+    static int decode(Position pos, int bookMove) {
+        int to = (7 - ((bookMove >> 3) & 7)) * 8 + (bookMove & 7);
+        int from = (7 - ((bookMove >> 9) & 7)) * 8 + ((bookMove >> 6) & 7);
+        int promotion = (bookMove >> 12) & 7;
+        int piece = pos.pieceAt(from);
+        if (piece != Piece.NONE && Piece.type(piece) == Piece.KING && pos.pieceAt(to) == Piece.make(Piece.color(piece), Piece.ROOK)) {
+            to = to > from ? from + 2 : from - 2; // king takes own rook means castling
+        }
+        int[] moves = new int[MoveGen.MAX_MOVES];
+        int count = MoveGen.generateLegalFrom(pos, from, moves);
+        for (int i = 0; i < count; i++) {
+            if (Move.to(moves[i]) == to && Move.promotion(moves[i]) == promotion) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    // Our move -> Polyglot move
+    static int encode(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (Move.isCastling(move)) {
+            to = to > from ? from + 3 : from - 4; // the rook's square
+        }
+        return (to & 7) | ((7 - (to >> 3)) << 3) | ((from & 7) << 6) | ((7 - (from >> 3)) << 9)
+            | (Move.promotion(move) << 12);
+    }
+
+    // Write a book from lines of coordinate moves; each occurrence of a move in a
+    // position adds one to its weight
+    public static void build(List<String> lines, Path out) throws IOException {
+        Map<Long, Map<Integer, Integer>> weights = new TreeMap<>(Long::compareUnsigned);
+        for (String line : lines) {
+            Game game = new Game(new HumanPlayer(true), new HumanPlayer(false));
+            for (String text : line.trim().split("\\s+")) {
+                if (text.isEmpty()) {
+                    continue;
+                }
+                int move = game.parseMove(text);
+                if (move == Move.NONE) {
+                    throw new IllegalArgumentException("Illegal move " + text + " in: " + line);
+                }
+                weights.computeIfAbsent(game.position().hash(), k -> new TreeMap<>())
+                    .merge(encode(move), 1, Integer::sum);
+                game.play(move);
+            }
+        }
+        int entries = 0;
+        for (Map<Integer, Integer> moves : weights.values()) {
+            entries += moves.size();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entries * ENTRY_BYTES);
+        for (Map.Entry<Long, Map<Integer, Integer>> position : weights.entrySet()) {
+            for (Map.Entry<Integer, Integer> move : position.getValue().entrySet()) {
+                buffer.putLong(position.getKey());
+                buffer.putShort((short) (int) move.getKey());
+                buffer.putShort((short) Math.min(0xFFFF, move.getValue()));
+                buffer.putInt(0);
+            }
+        }
+        Files.write(out, buffer.array());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("build")) {
+            Path out = Paths.get(args[2]);
+            build(Files.readAllLines(Paths.get(args[1])), out);
+            System.out.println("Wrote " + Files.size(out) / ENTRY_BYTES + " entries to " + out);
+        } else if (args.length >= 2 && args[0].equals("probe")) {
+            OpeningBook book = open(Paths.get(args[1]));
+            String fen = args.length > 2 ? String.join(" ", Arrays.copyOfRange(args, 2, args.length))
+                : Position.START_FEN;
+            for (String line : book.entries(Position.fromFen(fen))) {
+                System.out.println(line);
+            }
+        } else {
+            System.err.println("Usage: java OpeningBook build <lines.txt> <book.bin> | probe <book.bin> [fen]");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+import java.util.Arrays;
+
+// Headless perft runner: counts the leaf nodes of the legal move tree to a fixed depth.
+// It walks the tree with makeMove/unmakeMove on a single position, so it allocates nothing.
+// It is both the correctness gate for MoveGen (known node counts for standard positions)
+// and the raw generator throughput benchmark (nodes/sec).
+//
+// Usage:
+//   java Perft                          run the standard suite up to depth 4
+//   java Perft --suite 5                run the standard suite up to depth 5
+//   java Perft 5 [fen]                  count one position (start position by default)
+//   java Perft --divide 3 [fen]         per-root-move counts
+public final class Perft {
+    private static final int MAX_PLY = 64;
+
+    // Standard test positions with their published node counts for depth 1, 2, 3, ...
+    static final String[] SUITE_FENS = {
+        Position.START_FEN,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+    };
+    static final long[][] SUITE_COUNTS = {
+        {20, 400, 8902, 197281, 4865609, 119060324L},
+        {48, 2039, 97862, 4085603, 193690690L},
+        {14, 191, 2812, 43238, 674624, 11030083},
+        {6, 264, 9467, 422333, 15833292},
+        {44, 1486, 62379, 2103487, 89941194},
+        {46, 2079, 89890, 3894594, 164075551L}
+    };
+
+    // Knight shuffles after 1.e4: the position after 1.e4 occurs for the third time at the
+    // end, Black to move. No black pawn can take on e3, so the first occurrence must hash
+    // like the others for the threefold repetition to be seen.
+    static final String[] REPETITION_MOVES = {
+        "e2e4", "g8f6", "g1f3", "f6g8", "f3g1", "g8f6", "g1f3", "f6g8", "f3g1"
+    };
+
+    // One move buffer per ply, reused for the whole run
+    private final Position pos = new Position();
+    private final int[][] moves = new int[MAX_PLY][MoveGen.MAX_MOVES];
+
+    public long perft(Position root, int depth) {
+        pos.copyFrom(root);
+        return perft(0, depth);
+    }
+
+    private long perft(int ply, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] list = moves[ply];
+        int count = MoveGen.generateLegal(pos, list);
+        if (depth == 1) {
+            return count; // bulk counting: every generated move is legal
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            pos.makeMove(list[i]);
+            nodes += perft(ply + 1, depth - 1);
+            pos.unmakeMove();
+        }
+        return nodes;
+    }
+
+    // Print the node count below each legal root move, then the total
+    public long divide(Position root, int depth) {
+        Position position = root.copy();
+        int[] list = new int[MoveGen.MAX_MOVES];
+        int count = MoveGen.generateLegal(position, list);
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            Position child = position.copy();
+            child.makeMove(list[i]);
+            long nodes = depth <= 1 ? 1 : perft(child, depth - 1);
+            System.out.println(Move.toString(list[i]) + ": " + nodes);
+            total += nodes;
+        }
+        System.out.println();
+        System.out.println("Nodes searched: " + total);
+        return total;
+    }
+
+    // Run every suite position to maxDepth; returns false if any count differs
+    public boolean runSuite(int maxDepth) {
+        boolean passed = true;
+        long totalNodes = 0;
+        long totalNanos = 0;
+        for (int i = 0; i < SUITE_FENS.length; i++) {
+            Position pos = Position.fromFen(SUITE_FENS[i]);
+            System.out.println(SUITE_FENS[i]);
+            for (int depth = 1; depth <= Math.min(maxDepth, SUITE_COUNTS[i].length); depth++) {
+                long start = System.nanoTime();
+                long nodes = perft(pos, depth);
+                long nanos = System.nanoTime() - start;
+                long expected = SUITE_COUNTS[i][depth - 1];
+                boolean ok = nodes == expected;
+                passed &= ok;
+                totalNodes += nodes;
+                totalNanos += nanos;
+                System.out.printf("  depth %d: %12d %s (expected %d) %s%n",
+                    depth, nodes, ok ? "OK  " : "FAIL", expected, rate(nodes, nanos));
+            }
+        }
+        passed &= checkRepetition();
+        System.out.println((passed ? "PASSED " : "FAILED ") + totalNodes + " nodes, " + rate(totalNodes, totalNanos));
+        return passed;
+    }
+
+    // Play REPETITION_MOVES through Game; the game must end drawn on the last one
+    static boolean checkRepetition() {
+        Game game = new Game(new HumanPlayer(true), new HumanPlayer(false));
+        for (String text : REPETITION_MOVES) {
+            if (!game.play(game.parseMove(text))) {
+                System.out.println("repetition: cannot play " + text + " FAIL");
+                return false;
+            }
+        }
+        int repetitions = game.position().repetitionCount();
+        boolean ok = repetitions == 2 && game.status() == Game.Status.DRAW;
+        System.out.printf("repetition: %s occurred %d times before, %s %s%n",
+            String.join(" ", REPETITION_MOVES), repetitions, game.status(), ok ? "OK" : "FAIL");
+        return ok;
+    }
+
+    static String rate(long nodes, long nanos) {
+        return String.format("%.0f nodes/sec", nodes * 1e9 / Math.max(1, nanos));
+    }
+
+    private static String joinFen(String[] args, int from) {
+        if (args.length <= from) {
+            return Position.START_FEN;
+        }
+        return String.join(" ", Arrays.copyOfRange(args, from, args.length));
+    }
+
+    public static void main(String[] args) {
+        Perft perft = new Perft();
+        if (args.length == 0 || args[0].equals("--suite")) {
+            int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+            System.exit(perft.runSuite(maxDepth) ? 0 : 1);
+        }
+        if (args[0].equals("--divide")) {
+            perft.divide(Position.fromFen(joinFen(args, 2)), Integer.parseInt(args[1]));
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        Position pos = Position.fromFen(joinFen(args, 1));
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = perft.perft(pos, d);
+            System.out.println("depth " + d + ": " + nodes + " (" + rate(nodes, System.nanoTime() - start) + ")");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+// Piece ordinals shared by the bitboard position, the move generator and the view.
+// White pieces are 0-5 and black pieces are 6-11, so colour is piece / 6 and type is piece % 6.
+public final class Piece {
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    // Piece types
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    // Coloured pieces
+    public static final int WP = 0, WN = 1, WB = 2, WR = 3, WQ = 4, WK = 5;
+    public static final int BP = 6, BN = 7, BB = 8, BR = 9, BQ = 10, BK = 11;
+    public static final int NONE = -1;
+    public static final int COUNT = 12;
+
+    // Same letters as the String[][] board uses ("." is an empty square)
+    private static final String LETTERS = "PNBRQKpnbrqk";
+
+    private Piece() {}
+
+    public static int make(int color, int type) {
+        return color * 6 + type;
+    }
+
+    public static int color(int piece) {
+        return piece / 6;
+    }
+
+    public static int type(int piece) {
+        return piece % 6;
+    }
+
+    public static char toChar(int piece) {
+        return piece == NONE ? '.' : LETTERS.charAt(piece);
+    }
+
+    public static int fromChar(char c) {
+        return LETTERS.indexOf(c); // -1 (NONE) for '.' and anything unknown
+    }
+}
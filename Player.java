@@ -0,0 +1,18 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Player class and subclasses for Human and Computer players.
+// Players only choose moves; Game applies them, so none of this needs a display.
+abstract class Player {
+    boolean isWhite;
+
+    Player(boolean isWhite) {
+        this.isWhite = isWhite;
+    }
+
+    // Choose a move in the given position; Move.NONE if the move comes from elsewhere.
+    // stop is set when the game is closed: a player still choosing should give up.
+    abstract int makeMove(Position position, AtomicBoolean stop);
+
+    // Release any background resources when the game goes away
+    void shutdown() {}
+}
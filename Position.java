@@ -0,0 +1,474 @@
+import java.util.Arrays;
+
+// Bitboard representation of a chess position.
+// Square numbering follows the String[][] board used by the view: square = y * 8 + x,
+// so square 0 is the top-left tile (a8) and square 63 is the bottom-right tile (h1).
+// Bit n of every mask corresponds to square n.
+public final class Position {
+    // Castling rights
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    public static final int NO_SQUARE = -1;
+
+    // Rights that survive a move touching each square (king and rook home squares clear theirs)
+    static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, 15);
+        CASTLING_MASK[60] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        CASTLING_MASK[63] &= ~WHITE_KING_SIDE;
+        CASTLING_MASK[56] &= ~WHITE_QUEEN_SIDE;
+        CASTLING_MASK[4] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASK[7] &= ~BLACK_KING_SIDE;
+        CASTLING_MASK[0] &= ~BLACK_QUEEN_SIDE;
+    }
+
+    final long[] pieces = new long[Piece.COUNT]; // one mask per coloured piece
+    final long[] colors = new long[2];           // occupancy per side
+    long occupied;                               // all pieces
+    final int[] squares = new int[64];           // piece on each square, Piece.NONE if empty
+    boolean whiteToMove = true;
+    int castling;
+    int epSquare = NO_SQUARE;                    // square a pawn of the side to move can
+                                                 // capture onto en passant (see canCaptureOnto)
+    int halfmoveClock;
+    int fullmoveNumber = 1;
+    long hash;                                   // Zobrist key, updated incrementally
+    int mgScore;                                 // white-relative Evaluation sums, also
+    int egScore;                                 // updated in put/remove
+    int phase;
+
+    // Undo stack for makeMove/unmakeMove, allocated on first use and grown by doubling
+    private static final int INITIAL_UNDO = 256;
+    private int[] undoMoves;
+    private int[] undoState;
+    private long[] undoHash;
+    private int undoCount;
+
+    // Counting filter over the hashes on the undo stack, indexed by the low hash bits.
+    // A zero count proves the current position has not occurred before, so the common
+    // repetition check is one array load; only a hit scans the reversible part of the stack.
+    private static final int REPETITION_FILTER_SIZE = 4096;
+    private short[] repetitionFilter;
+
+    public Position() {
+        Arrays.fill(squares, Piece.NONE);
+    }
+
+    // Build a position from a flat 64-entry layout such as cg.INITIAL_PIECES
+    public static Position fromLayout(String[] layout, boolean whiteToMove) {
+        Position position = new Position();
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = Piece.fromChar(layout[sq].charAt(0));
+            if (piece != Piece.NONE) {
+                position.put(piece, sq);
+            }
+        }
+        position.whiteToMove = whiteToMove;
+        position.castling = position.inferCastling();
+        position.hash = Zobrist.hash(position);
+        return position;
+    }
+
+    // Build a position from the view's String[8][8] board (board[y][x])
+    public static Position fromBoard(String[][] board, boolean whiteToMove) {
+        String[] layout = new String[64];
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                layout[y * 8 + x] = board[y][x];
+            }
+        }
+        return fromLayout(layout, whiteToMove);
+    }
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // Parse Forsyth-Edwards Notation; FEN lists rank 8 first, which matches our square order
+    public static Position fromFen(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+        Position position = new Position();
+        int sq = 0;
+        for (char c : fields[0].toCharArray()) {
+            if (c == '/') {
+                continue;
+            }
+            if (c >= '1' && c <= '8') {
+                sq += c - '0';
+            } else {
+                int piece = Piece.fromChar(c);
+                if (piece == Piece.NONE || sq > 63) {
+                    throw new IllegalArgumentException("Invalid FEN: " + fen);
+                }
+                position.put(piece, sq++);
+            }
+        }
+        if (sq != 64) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+        position.whiteToMove = fields[1].equals("w");
+        for (char c : fields[2].toCharArray()) {
+            switch (c) {
+                case 'K': position.castling |= WHITE_KING_SIDE; break;
+                case 'Q': position.castling |= WHITE_QUEEN_SIDE; break;
+                case 'k': position.castling |= BLACK_KING_SIDE; break;
+                case 'q': position.castling |= BLACK_QUEEN_SIDE; break;
+                default: break;
+            }
+        }
+        if (!fields[3].equals("-")) {
+            int ep = (fields[3].charAt(0) - 'a') + ('8' - fields[3].charAt(1)) * 8;
+            if (position.canCaptureOnto(position.sideToMove(), ep)) {
+                position.epSquare = ep;
+            }
+        }
+        if (fields.length > 5) {
+            position.halfmoveClock = Integer.parseInt(fields[4]);
+            position.fullmoveNumber = Integer.parseInt(fields[5]);
+        }
+        position.hash = Zobrist.hash(position);
+        return position;
+    }
+
+    public String toFen() {
+        StringBuilder sb = new StringBuilder();
+        for (int y = 0; y < 8; y++) {
+            int empty = 0;
+            for (int x = 0; x < 8; x++) {
+                int piece = squares[y * 8 + x];
+                if (piece == Piece.NONE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                sb.append(Piece.toChar(piece));
+            }
+            if (empty > 0) {
+                sb.append(empty);
+            }
+            if (y < 7) {
+                sb.append('/');
+            }
+        }
+        sb.append(whiteToMove ? " w " : " b ");
+        if (castling == 0) {
+            sb.append('-');
+        } else {
+            if ((castling & WHITE_KING_SIDE) != 0) sb.append('K');
+            if ((castling & WHITE_QUEEN_SIDE) != 0) sb.append('Q');
+            if ((castling & BLACK_KING_SIDE) != 0) sb.append('k');
+            if ((castling & BLACK_QUEEN_SIDE) != 0) sb.append('q');
+        }
+        sb.append(' ').append(epSquare == NO_SQUARE ? "-" : Move.squareName(epSquare));
+        sb.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return sb.toString();
+    }
+
+    // Write the position back into the view's String[8][8] board
+    public void toBoard(String[][] board) {
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                board[y][x] = String.valueOf(Piece.toChar(squares[y * 8 + x]));
+            }
+        }
+    }
+
+    // Castling rights are not part of the board layout, so grant every right whose
+    // king and rook still stand on their home squares
+    private int inferCastling() {
+        int rights = 0;
+        if (squares[60] == Piece.WK) {
+            if (squares[63] == Piece.WR) rights |= WHITE_KING_SIDE;
+            if (squares[56] == Piece.WR) rights |= WHITE_QUEEN_SIDE;
+        }
+        if (squares[4] == Piece.BK) {
+            if (squares[7] == Piece.BR) rights |= BLACK_KING_SIDE;
+            if (squares[0] == Piece.BR) rights |= BLACK_QUEEN_SIDE;
+        }
+        return rights;
+    }
+
+    public void copyFrom(Position other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, Piece.COUNT);
+        System.arraycopy(other.squares, 0, squares, 0, 64);
+        colors[0] = other.colors[0];
+        colors[1] = other.colors[1];
+        occupied = other.occupied;
+        whiteToMove = other.whiteToMove;
+        castling = other.castling;
+        epSquare = other.epSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        hash = other.hash;
+        mgScore = other.mgScore;
+        egScore = other.egScore;
+        phase = other.phase;
+        // Keep the game history so repetitions across the copy are still seen
+        if (other.undoCount > 0) {
+            ensureUndoCapacity(other.undoCount);
+            System.arraycopy(other.undoMoves, 0, undoMoves, 0, other.undoCount);
+            System.arraycopy(other.undoState, 0, undoState, 0, other.undoCount);
+            System.arraycopy(other.undoHash, 0, undoHash, 0, other.undoCount);
+            System.arraycopy(other.repetitionFilter, 0, repetitionFilter, 0, REPETITION_FILTER_SIZE);
+        } else if (undoCount > 0) {
+            Arrays.fill(repetitionFilter, (short) 0);
+        }
+        undoCount = other.undoCount;
+    }
+
+    public Position copy() {
+        Position position = new Position();
+        position.copyFrom(this);
+        return position;
+    }
+
+    // Place a piece on an empty square
+    void put(int piece, int sq) {
+        long bit = 1L << sq;
+        pieces[piece] |= bit;
+        colors[Piece.color(piece)] |= bit;
+        occupied |= bit;
+        squares[sq] = piece;
+        hash ^= Zobrist.PIECES[piece][sq];
+        mgScore += Evaluation.MG[piece][sq];
+        egScore += Evaluation.EG[piece][sq];
+        phase += Evaluation.PHASE_WEIGHTS[Piece.type(piece)];
+    }
+
+    // Remove whatever stands on a square and return it
+    int remove(int sq) {
+        int piece = squares[sq];
+        if (piece != Piece.NONE) {
+            long bit = ~(1L << sq);
+            pieces[piece] &= bit;
+            colors[Piece.color(piece)] &= bit;
+            occupied &= bit;
+            squares[sq] = Piece.NONE;
+            hash ^= Zobrist.PIECES[piece][sq];
+            mgScore -= Evaluation.MG[piece][sq];
+            egScore -= Evaluation.EG[piece][sq];
+            phase -= Evaluation.PHASE_WEIGHTS[Piece.type(piece)];
+        }
+        return piece;
+    }
+
+    // Move the piece on 'from' to 'to', capturing anything there; returns the captured piece
+    int move(int from, int to) {
+        int captured = remove(to);
+        put(remove(from), to);
+        return captured;
+    }
+
+    // Play a packed move (see Move) for the side to move, recording what unmakeMove needs
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = squares[from];
+        pushUndo(move);
+        int captured;
+        hash ^= Zobrist.CASTLING[castling];
+        if (epSquare != NO_SQUARE) {
+            hash ^= Zobrist.EN_PASSANT[epSquare & 7];
+        }
+        if (Move.isEnPassant(move)) {
+            captured = remove(whiteToMove ? to + 8 : to - 8);
+            move(from, to);
+        } else if (Move.isCastling(move)) {
+            captured = move(from, to);
+            move(to > from ? to + 1 : to - 2, to > from ? to - 1 : to + 1);
+        } else {
+            captured = move(from, to);
+        }
+        undoState[undoCount - 1] |= captured + 1;
+        if (Move.isPromotion(move)) {
+            remove(to);
+            put(Piece.make(sideToMove(), Move.promotion(move)), to);
+        }
+        epSquare = Move.isDoublePush(move) && canCaptureOnto(sideToMove() ^ 1, (from + to) / 2)
+            ? (from + to) / 2 : NO_SQUARE;
+        halfmoveClock = Piece.type(piece) == Piece.PAWN || captured != Piece.NONE ? 0 : halfmoveClock + 1;
+        castling &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        hash ^= Zobrist.CASTLING[castling] ^ Zobrist.SIDE;
+        if (epSquare != NO_SQUARE) {
+            hash ^= Zobrist.EN_PASSANT[epSquare & 7];
+        }
+        if (!whiteToMove) {
+            fullmoveNumber++;
+        }
+        whiteToMove = !whiteToMove;
+    }
+
+    // Take back the last move played with makeMove
+    public void unmakeMove() {
+        int move = undoMoves[--undoCount];
+        int state = undoState[undoCount];
+        whiteToMove = !whiteToMove;
+        if (!whiteToMove) {
+            fullmoveNumber--;
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (Move.isPromotion(move)) {
+            remove(to);
+            put(Piece.make(sideToMove(), Piece.PAWN), to);
+        }
+        move(to, from);
+        if (Move.isCastling(move)) {
+            move(to > from ? to - 1 : to + 1, to > from ? to + 1 : to - 2);
+        }
+        int captured = (state & 15) - 1;
+        if (captured != Piece.NONE) {
+            put(captured, Move.isEnPassant(move) ? (whiteToMove ? to + 8 : to - 8) : to);
+        }
+        castling = (state >>> 4) & 15;
+        epSquare = ((state >>> 8) & 127) - 1;
+        halfmoveClock = state >>> 15;
+        hash = undoHash[undoCount];
+        repetitionFilter[(int) hash & (REPETITION_FILTER_SIZE - 1)]--;
+    }
+
+    // Pass the move to the opponent (null-move pruning). Clearing the halfmove clock keeps
+    // repetition checks from matching positions on the far side of the pass.
+    void makeNullMove() {
+        pushUndo(Move.NONE);
+        if (epSquare != NO_SQUARE) {
+            hash ^= Zobrist.EN_PASSANT[epSquare & 7];
+            epSquare = NO_SQUARE;
+        }
+        hash ^= Zobrist.SIDE;
+        halfmoveClock = 0;
+        whiteToMove = !whiteToMove;
+    }
+
+    void unmakeNullMove() {
+        int state = undoState[--undoCount];
+        whiteToMove = !whiteToMove;
+        epSquare = ((state >>> 8) & 127) - 1;
+        halfmoveClock = state >>> 15;
+        hash = undoHash[undoCount];
+        repetitionFilter[(int) hash & (REPETITION_FILTER_SIZE - 1)]--;
+    }
+
+    // Whether a pawn of the given colour attacks sq. Only then is a square behind a double
+    // push kept as the en-passant square: one no pawn can use would make positions that are
+    // the same under the rules hash differently and hide their repetitions.
+    boolean canCaptureOnto(int color, int sq) {
+        return (Attacks.PAWN[color ^ 1][sq] & pieces[Piece.make(color, Piece.PAWN)]) != 0;
+    }
+
+    // Number of moves that can currently be taken back
+    public int undoDepth() {
+        return undoCount;
+    }
+
+    // How often the current position occurred before. Only positions since the last capture
+    // or pawn move can repeat, and only those with the same side to move (every second ply).
+    public int repetitionCount() {
+        if (undoCount == 0 || repetitionFilter[(int) hash & (REPETITION_FILTER_SIZE - 1)] == 0) {
+            return 0;
+        }
+        int count = 0;
+        int oldest = Math.max(0, undoCount - halfmoveClock);
+        for (int i = undoCount - 2; i >= oldest; i -= 2) {
+            if (undoHash[i] == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean isRepetition() {
+        return repetitionCount() > 0;
+    }
+
+    // Neither side can mate: bare kings, or a single minor piece against a bare king
+    public boolean hasInsufficientMaterial() {
+        long heavy = pieces[Piece.WP] | pieces[Piece.BP] | pieces[Piece.WR] | pieces[Piece.BR]
+            | pieces[Piece.WQ] | pieces[Piece.BQ];
+        return heavy == 0 && Long.bitCount(occupied) <= 3;
+    }
+
+    // Undo entries are packed into one int per move:
+    //   bits 0-3 captured piece + 1, bits 4-7 castling rights, bits 8-14 en-passant square + 1,
+    //   bits 15+ halfmove clock. The captured piece is filled in once makeMove knows it.
+    private void pushUndo(int move) {
+        ensureUndoCapacity(undoCount + 1);
+        undoMoves[undoCount] = move;
+        undoState[undoCount] = (castling << 4) | ((epSquare + 1) << 8) | (halfmoveClock << 15);
+        undoHash[undoCount] = hash;
+        repetitionFilter[(int) hash & (REPETITION_FILTER_SIZE - 1)]++;
+        undoCount++;
+    }
+
+    private void ensureUndoCapacity(int entries) {
+        while (undoMoves == null || entries > undoMoves.length) {
+            int size = undoMoves == null ? INITIAL_UNDO : undoMoves.length * 2;
+            undoMoves = undoMoves == null ? new int[size] : Arrays.copyOf(undoMoves, size);
+            undoState = undoState == null ? new int[size] : Arrays.copyOf(undoState, size);
+            undoHash = undoHash == null ? new long[size] : Arrays.copyOf(undoHash, size);
+            if (repetitionFilter == null) {
+                repetitionFilter = new short[REPETITION_FILTER_SIZE];
+            }
+        }
+    }
+
+    public int pieceAt(int sq) {
+        return squares[sq];
+    }
+
+    public int pieceAt(int x, int y) {
+        return squares[y * 8 + x];
+    }
+
+    public boolean isWhiteToMove() {
+        return whiteToMove;
+    }
+
+    public int sideToMove() {
+        return whiteToMove ? Piece.WHITE : Piece.BLACK;
+    }
+
+    public long pieces(int piece) {
+        return pieces[piece];
+    }
+
+    public long occupancy(int color) {
+        return colors[color];
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    public long hash() {
+        return hash;
+    }
+
+    public int castlingRights() {
+        return castling;
+    }
+
+    public int enPassantSquare() {
+        return epSquare;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                sb.append(Piece.toChar(squares[y * 8 + x]));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,559 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Negamax alpha-beta search with iterative deepening, used by the computer player.
+// The tree is walked with makeMove/unmakeMove on one position and every ply has a
+// preallocated MovePicker that generates moves in stages as they are needed, so a
+// search allocates nothing per node. Scores are in centipawns from the side to move's point of view.
+// Results are cached in a transposition table that persists between searches.
+public final class Search {
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    // Tablebase wins score below every mate and above every evaluation
+    public static final int TB_WIN = 20000;
+    static final int MAX_PLY = 128;
+    // Lowest tablebase win: TB_WIN less the probing ply and up to 127 plies to conversion.
+    // Like mates, scores from here up count plies from the root (see TranspositionTable).
+    static final int TB_WIN_MIN = TB_WIN - 2 * MAX_PLY;
+    static final int DEFAULT_HASH_MB = 16;
+    // Quiescence skips captures that leave the score this far below alpha even when won
+    static final int DELTA_MARGIN = 200;
+    // Selective search margins, per remaining ply of depth
+    static final int FUTILITY_MARGIN = 100;
+    static final int RAZOR_MARGIN = 300;
+    static final int ASPIRATION_WINDOW = 25;
+
+    // Late move reductions by remaining depth and move number: ln(depth) * ln(moves) / 2
+    private static final int[][] REDUCTIONS = new int[MAX_PLY][MoveGen.MAX_MOVES];
+
+    static {
+        for (int depth = 1; depth < MAX_PLY; depth++) {
+            for (int moves = 1; moves < MoveGen.MAX_MOVES; moves++) {
+                REDUCTIONS[depth][moves] = (int) (0.5 + Math.log(depth) * Math.log(moves) / 2);
+            }
+        }
+    }
+
+    // How long a search may run; any limit left at 0 is unbounded
+    public static final class Limits {
+        public int depth = MAX_PLY - 1;
+        public long millis;
+        public long nodes;
+        // Stops this search once set. Unlike stop(), which the next search clears as it
+        // starts, a token set before its search has even begun still stops it.
+        public AtomicBoolean stop;
+
+        public static Limits depth(int depth) {
+            Limits limits = new Limits();
+            limits.depth = depth;
+            return limits;
+        }
+
+        public static Limits time(long millis) {
+            Limits limits = new Limits();
+            limits.millis = millis;
+            return limits;
+        }
+
+        public static Limits nodes(long nodes) {
+            Limits limits = new Limits();
+            limits.nodes = nodes;
+            return limits;
+        }
+
+        // The same limits, stopped by the given token
+        public Limits withStop(AtomicBoolean stop) {
+            Limits limits = new Limits();
+            limits.depth = depth;
+            limits.millis = millis;
+            limits.nodes = nodes;
+            limits.stop = stop;
+            return limits;
+        }
+    }
+
+    // Selective search features, each switchable so self-play can measure what it is worth.
+    // Defaults come from system properties, e.g. -Dsearch.nullMove=false.
+    public static final class Options {
+        public boolean nullMove = true;            // null-move pruning
+        public boolean lateMoveReductions = true;  // reduce late quiet moves, re-search if they improve alpha
+        public boolean futility = true;            // reverse futility at the node, futility for quiet moves
+        public boolean razoring = true;            // drop straight into quiescence far below alpha
+        public boolean aspiration = true;          // narrow root window around the last score
+
+        public static Options fromProperties() {
+            Options options = new Options();
+            options.nullMove = flag("nullMove", options.nullMove);
+            options.lateMoveReductions = flag("lateMoveReductions", options.lateMoveReductions);
+            options.futility = flag("futility", options.futility);
+            options.razoring = flag("razoring", options.razoring);
+            options.aspiration = flag("aspiration", options.aspiration);
+            return options;
+        }
+
+        private static boolean flag(String name, boolean fallback) {
+            String value = System.getProperty("search." + name);
+            return value == null ? fallback : Boolean.parseBoolean(value);
+        }
+
+        // Switch one option by name; returns false for an unknown name
+        public boolean set(String name, boolean value) {
+            switch (name) {
+                case "nullMove": nullMove = value; return true;
+                case "lateMoveReductions": lateMoveReductions = value; return true;
+                case "futility": futility = value; return true;
+                case "razoring": razoring = value; return true;
+                case "aspiration": aspiration = value; return true;
+                default: return false;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "nullMove=" + nullMove + " lateMoveReductions=" + lateMoveReductions + " futility=" + futility
+                + " razoring=" + razoring + " aspiration=" + aspiration;
+        }
+    }
+
+    // Notified on the searching thread after every completed iteration
+    public interface Listener {
+        void onIteration(Result result);
+    }
+
+    public static final class Result {
+        public final int move;
+        public final int score;
+        public final int depth;
+        public final long nodes;
+        public final long millis;
+        public final int[] pv;
+        public final double hashHitRate;
+        public final int hashfull;               // per-mille of the table written this search
+        public final double firstMoveCutoffRate; // see MoveOrdering
+
+        Result(int move, int score, int depth, long nodes, long millis, int[] pv, double hashHitRate,
+               int hashfull, double firstMoveCutoffRate) {
+            this.move = move;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.millis = millis;
+            this.pv = pv;
+            this.hashHitRate = hashHitRate;
+            this.hashfull = hashfull;
+            this.firstMoveCutoffRate = firstMoveCutoffRate;
+        }
+
+        public long nodesPerSecond() {
+            return nodes * 1000 / Math.max(1, millis);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("depth ").append(depth).append(" score ").append(score)
+              .append(" nodes ").append(nodes).append(" time ").append(millis)
+              .append(" nps ").append(nodesPerSecond())
+              .append(String.format(" hashhit %.1f%%", hashHitRate * 100))
+              .append(String.format(" hashfull %.1f%%", hashfull / 10.0))
+              .append(String.format(" firstcut %.1f%%", firstMoveCutoffRate * 100))
+              .append(" pv ").append(pvText());
+            return sb.toString();
+        }
+
+        // The principal variation in coordinate notation, moves separated by spaces
+        public String pvText() {
+            StringBuilder sb = new StringBuilder();
+            for (int move : pv) {
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(Move.toString(move));
+            }
+            return sb.toString();
+        }
+    }
+
+    private final Position pos = new Position();
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private final int[][] quietsTried = new int[MAX_PLY][MoveGen.MAX_MOVES];
+    private final int[] played = new int[MAX_PLY]; // move made at each ply, for countermoves
+    private final MoveOrdering ordering = new MoveOrdering();
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final TranspositionTable tt;
+
+    private long nodes;
+    private long ttProbes; // per search and per thread: the table itself is shared
+    private long ttHits;
+    private long nodeLimit;
+    private long deadline;
+    private boolean stopped;
+    private volatile boolean stopRequested;
+    private AtomicBoolean stopToken; // Limits.stop of the running search
+
+    // Set by LazySmp: the table is shared, so the driver starts table generations and
+    // clears stop flags itself. Helpers (index > 0) skip alternate depths to diversify.
+    boolean shared;
+    int helperIndex;
+    private Listener listener;
+    private Options options = Options.fromProperties();
+    private Tablebase tablebase;
+
+    public Search() {
+        this(new TranspositionTable(DEFAULT_HASH_MB));
+    }
+
+    public Search(TranspositionTable tt) {
+        this.tt = tt;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            pickers[ply] = new MovePicker();
+        }
+    }
+
+    // Ask a running search to return as soon as possible (safe from any thread)
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void setOptions(Options options) {
+        this.options = options;
+    }
+
+    // Probe these tables inside the tree once few enough pieces are left (null for none)
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    void clearStop() {
+        stopRequested = false;
+    }
+
+    public Result search(Position root, Limits limits) {
+        long start = System.nanoTime();
+        pos.copyFrom(root);
+        nodes = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        nodeLimit = limits.nodes;
+        deadline = limits.millis > 0 ? start + limits.millis * 1_000_000L : 0;
+        stopToken = limits.stop;
+        stopped = false;
+        if (!shared) {
+            stopRequested = false;
+            tt.newSearch();
+        }
+        ordering.newSearch();
+
+        Result result = new Result(Move.NONE, 0, 0, 0, 0, new int[0], 0, 0, 0);
+        for (int depth = 1; depth <= Math.min(limits.depth, MAX_PLY - 1); depth++) {
+            if (helperIndex > 0 && depth > 1 && ((depth + helperIndex) & 1) == 0) {
+                continue;
+            }
+            int score = searchRoot(depth, result.score);
+            // A partial iteration is only trusted when nothing better is available
+            if (stopped && result.move != Move.NONE) {
+                break;
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000L;
+            int[] line = Arrays.copyOf(pv[0], pvLength[0]);
+            result = new Result(line.length > 0 ? line[0] : Move.NONE, score, depth, nodes, millis, line, hashHitRate(),
+                tt.hashfull(), ordering.firstMoveCutoffRate());
+            if (listener != null) {
+                listener.onIteration(result);
+            }
+            if (stopped || Math.abs(score) >= MATE - MAX_PLY) {
+                break;
+            }
+            // The next iteration costs several times this one; don't start what can't finish
+            if (deadline != 0 && System.nanoTime() > start + (deadline - start) / 2) {
+                break;
+            }
+        }
+        int move = result.move != Move.NONE ? result.move : firstLegalMove();
+        return new Result(move, result.score, result.depth, nodes,
+            (System.nanoTime() - start) / 1_000_000L, result.pv, hashHitRate(), tt.hashfull(),
+            ordering.firstMoveCutoffRate());
+    }
+
+    private double hashHitRate() {
+        return ttProbes == 0 ? 0 : (double) ttHits / ttProbes;
+    }
+
+    // Table probes and hits of the last search on this thread; LazySmp sums them over its
+    // threads once they are done
+    long ttProbes() {
+        return ttProbes;
+    }
+
+    long ttHits() {
+        return ttHits;
+    }
+
+    // Search the root, first with a narrow window around the previous iteration's score
+    // when aspiration is on, widening on the side that failed until the score fits
+    private int searchRoot(int depth, int previousScore) {
+        if (!options.aspiration || depth < 5 || Math.abs(previousScore) >= MATE - MAX_PLY) {
+            return negamax(0, depth, -INFINITY, INFINITY);
+        }
+        int window = ASPIRATION_WINDOW;
+        int alpha = previousScore - window;
+        int beta = previousScore + window;
+        while (true) {
+            int score = negamax(0, depth, alpha, beta);
+            if (stopped) {
+                return score;
+            }
+            if (score <= alpha) {
+                alpha = Math.max(score - window, -INFINITY);
+            } else if (score >= beta) {
+                beta = Math.min(score + window, INFINITY);
+            } else {
+                return score;
+            }
+            window *= 2;
+        }
+    }
+
+    // Fallback when a search is stopped before its first iteration produced a move
+    private int firstLegalMove() {
+        int[] list = new int[MoveGen.MAX_MOVES];
+        return MoveGen.generateLegal(pos, list) > 0 ? list[0] : Move.NONE;
+    }
+
+    private int negamax(int ply, int depth, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if ((++nodes & 2047) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            nodes--; // counted again by quiesce
+            return quiesce(ply, alpha, beta);
+        }
+        // A single repetition inside the tree is scored as the draw it can be forced into
+        if (ply > 0 && (pos.halfmoveClock >= 100 || pos.isRepetition() || pos.hasInsufficientMaterial())) {
+            return 0;
+        }
+        if (ply > 0 && tablebase != null && Long.bitCount(pos.occupied) <= tablebase.maxPieces()) {
+            int value = tablebase.probe(pos);
+            if (value != Tablebase.UNKNOWN) {
+                return Tablebase.score(value, ply);
+            }
+        }
+
+        int hashMove = Move.NONE;
+        long entry = tt.probe(pos.hash);
+        ttProbes++;
+        if (entry != 0) {
+            ttHits++;
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry, ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int us = pos.sideToMove();
+        boolean inCheck = Attacks.inCheck(pos, us);
+        boolean pvNode = beta - alpha > 1;
+        int staticEval = inCheck ? -INFINITY : Evaluation.evaluate(pos);
+        int previous = ply > 0 ? played[ply - 1] : Move.NONE;
+        boolean selective = !pvNode && !inCheck && Math.abs(beta) < MATE - MAX_PLY;
+
+        // Reverse futility: far enough above beta that a shallow search will not drop below it
+        if (options.futility && selective && depth <= 3 && staticEval - FUTILITY_MARGIN * depth >= beta) {
+            return staticEval;
+        }
+        // Razoring: hopelessly below alpha near the leaves, so only tactics can save the node
+        if (options.razoring && selective && depth <= 2 && staticEval + RAZOR_MARGIN * depth <= alpha) {
+            int score = quiesce(ply, alpha, alpha + 1);
+            if (score <= alpha) {
+                return score;
+            }
+        }
+        // Null move: if passing still fails high, a real move surely would. Not twice in a
+        // row, and not without pieces, where zugzwang makes passing unsound.
+        if (options.nullMove && selective && depth >= 3 && staticEval >= beta && previous != Move.NONE
+            && (pos.colors[us] & ~(pos.pieces[Piece.make(us, Piece.PAWN)] | pos.pieces[Piece.make(us, Piece.KING)])) != 0) {
+            int reduction = 3 + depth / 6;
+            played[ply] = Move.NONE;
+            pos.makeNullMove();
+            int score = -negamax(ply + 1, depth - 1 - reduction, -beta, -beta + 1);
+            pos.unmakeNullMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE - MAX_PLY ? beta : score;
+            }
+        }
+        // Futility: quiet moves at the frontier cannot lift a score this far below alpha
+        boolean futile = options.futility && selective && depth <= 2 && staticEval + FUTILITY_MARGIN * depth <= alpha;
+
+        MovePicker picker = pickers[ply];
+        picker.init(pos, ordering, hashMove, ply, previous);
+        int[] quiets = quietsTried[ply];
+        int quietCount = 0;
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        int searched = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            int i = searched++;
+            boolean quiet = !MoveOrdering.isTactical(move);
+            played[ply] = move;
+            pos.makeMove(move);
+            boolean givesCheck = Attacks.inCheck(pos, us ^ 1);
+            if (futile && quiet && i > 0 && !givesCheck) {
+                pos.unmakeMove();
+                best = Math.max(best, staticEval + FUTILITY_MARGIN * depth);
+                continue;
+            }
+            int score;
+            if (i == 0) {
+                score = -negamax(ply + 1, depth - 1, -beta, -alpha);
+            } else {
+                // Principal variation search: prove later moves worse with a null window,
+                // searched shallower if they come late and are quiet
+                int reduction = 0;
+                if (options.lateMoveReductions && depth >= 3 && i >= 3 && quiet && !inCheck && !givesCheck) {
+                    reduction = Math.min(REDUCTIONS[depth][i] + (pvNode ? 0 : 1), depth - 2);
+                }
+                score = -negamax(ply + 1, depth - 1 - reduction, -alpha - 1, -alpha);
+                if (score > alpha && reduction > 0) {
+                    score = -negamax(ply + 1, depth - 1, -alpha - 1, -alpha);
+                }
+                if (score > alpha && score < beta) {
+                    score = -negamax(ply + 1, depth - 1, -beta, -alpha);
+                }
+            }
+            pos.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        ordering.onCutoff(pos, move, i, ply, depth, previous, quiets, quietCount);
+                        break;
+                    }
+                }
+            }
+            if (quiet) {
+                quiets[quietCount++] = move;
+            }
+        }
+        if (searched == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER
+            : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        tt.store(pos.hash, bestMove, best, depth, bound, ply);
+        return best;
+    }
+
+    // Resolve captures before trusting the static evaluation, so the horizon does not cut
+    // an exchange in half. The side to move may stand pat on the evaluation; captures that
+    // lose material by static exchange, or that cannot lift the score to alpha even if the
+    // victim comes for free, are not searched. In check every evasion is tried instead.
+    private int quiesce(int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if ((++nodes & 2047) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        int standPat = Evaluation.evaluate(pos);
+        if (ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        boolean inCheck = Attacks.inCheck(pos, pos.sideToMove());
+        int best = -INFINITY;
+        if (!inCheck) {
+            if (standPat >= beta) {
+                return standPat;
+            }
+            best = standPat;
+            alpha = Math.max(alpha, standPat);
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.initQuiescence(pos, ordering, inCheck);
+        int searched = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            searched++;
+            if (!inCheck && !Move.isPromotion(move)) {
+                int victim = Move.isEnPassant(move) ? Piece.PAWN : Piece.type(pos.squares[Move.to(move)]);
+                if (standPat + Evaluation.PIECE_VALUES[victim] + DELTA_MARGIN <= alpha
+                    || !StaticExchange.atLeast(pos, move, 0)) {
+                    continue;
+                }
+            }
+            played[ply] = move;
+            pos.makeMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            pos.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (inCheck && searched == 0) {
+            return -MATE + ply;
+        }
+        return best;
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][0] = move;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, length);
+        pvLength[ply] = length + 1;
+    }
+
+    private void checkLimits() {
+        if (stopRequested
+            || (stopToken != null && stopToken.get())
+            || (nodeLimit > 0 && nodes >= nodeLimit)
+            || (deadline != 0 && System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+    }
+
+    // Search a FEN (start position by default) and print each completed result
+    //   java Search [millis] [fen]
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 5000;
+        String fen = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length))
+            : Position.START_FEN;
+        Result result = new Search().search(Position.fromFen(fen), Limits.time(millis));
+        System.out.println(result);
+        System.out.println("bestmove " + Move.toString(result.move));
+    }
+}
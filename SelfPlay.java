@@ -0,0 +1,81 @@
+// Self-play A/B match between two search configurations, for deciding whether a search
+// option pays for itself. Engine A uses the default Search.Options; engine B the same
+// with the listed options switched. Each opening is played twice with colours swapped,
+// so neither side profits from a lopsided opening.
+//
+//   java SelfPlay [games] [millisPerMove] [option=on|off ...]
+//   java SelfPlay 40 100 nullMove=off lateMoveReductions=off
+public final class SelfPlay {
+    // Short, balanced opening lines in coordinate notation
+    static final String[] OPENINGS = {
+        "e2e4 e7e5", "d2d4 d7d5", "c2c4 e7e5", "e2e4 c7c5",
+        "g1f3 d7d5", "e2e4 e7e6", "d2d4 g8f6", "e2e4 c7c6",
+    };
+    static final int MAX_PLIES = 300;
+    static final int HASH_MB = 16;
+
+    private SelfPlay() {}
+
+    // Play one game from an opening line; returns 1 if A wins, 0 for a draw, -1 if B wins
+    static int play(String opening, boolean aIsWhite, Search a, Search b, long millis) {
+        Game game = new Game(new HumanPlayer(true), new HumanPlayer(false));
+        for (String move : opening.split(" ")) {
+            game.play(game.parseMove(move));
+        }
+        while (!game.isOver() && game.plyCount() < MAX_PLIES) {
+            Search engine = game.position().isWhiteToMove() == aIsWhite ? a : b;
+            int move = engine.search(game.position(), Search.Limits.time(millis)).move;
+            if (!game.play(move)) {
+                break;
+            }
+        }
+        if (game.status() == Game.Status.WHITE_WINS) {
+            return aIsWhite ? 1 : -1;
+        }
+        if (game.status() == Game.Status.BLACK_WINS) {
+            return aIsWhite ? -1 : 1;
+        }
+        return 0; // draws, and games adjudicated at MAX_PLIES
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        Search.Options optionsB = Search.Options.fromProperties();
+        for (int i = 2; i < args.length; i++) {
+            String[] pair = args[i].split("=");
+            if (pair.length != 2 || !optionsB.set(pair[0], pair[1].equals("on") || pair[1].equals("true"))) {
+                throw new IllegalArgumentException("Expected option=on|off, got " + args[i]);
+            }
+        }
+        TranspositionTable ttA = new TranspositionTable(HASH_MB);
+        TranspositionTable ttB = new TranspositionTable(HASH_MB);
+        Search a = new Search(ttA);
+        Search b = new Search(ttB);
+        b.setOptions(optionsB);
+        System.out.println("A: " + Search.Options.fromProperties());
+        System.out.println("B: " + optionsB);
+
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        for (int g = 0; g < games; g++) {
+            ttA.clear();
+            ttB.clear();
+            String opening = OPENINGS[(g / 2) % OPENINGS.length];
+            int result = play(opening, (g & 1) == 0, a, b, millis);
+            if (result > 0) {
+                wins++;
+            } else if (result < 0) {
+                losses++;
+            } else {
+                draws++;
+            }
+            System.out.printf("game %3d (%s, A %s): %s%n", g + 1, opening, (g & 1) == 0 ? "white" : "black",
+                result > 0 ? "A wins" : result < 0 ? "B wins" : "draw");
+        }
+        double score = (wins + draws / 2.0) / Math.max(1, games);
+        double elo = score <= 0 || score >= 1 ? Double.NaN : -400 * Math.log10(1 / score - 1);
+        System.out.printf("A +%d =%d -%d, score %.1f%%, A - B = %+.0f Elo%n", wins, draws, losses, score * 100, elo);
+    }
+}
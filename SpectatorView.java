@@ -0,0 +1,224 @@
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Frame;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.swing.Timer;
+
+// Many live games in one window, for watching engine games on a wall display.
+// Boards are laid out in a grid and drawn into one back buffer from sprites scaled to the
+// current tile size. The view owns those sprites rather than taking them from the atlas'
+// shared caches: the tile size follows the window, and every size a resize passes through
+// would otherwise stay cached for the life of the JVM.
+//
+// A timer samples every game at most fps times a second; each tick compares the 64 squares
+// of each game with what was last drawn and redraws just the tiles that differ, so a board
+// whose position did not change costs 64 comparisons and no drawing at all.
+// Only the rectangles of boards that changed are copied to the screen.
+//
+// Games are read without taking their monitors (a computer player holds one for as long
+// as it is thinking). A position caught halfway through an update is corrected on the
+// next tick, because the tiles drawn from it then differ from the game again.
+//
+//   java SpectatorView [boards] [millisPerMove] [fps]   watch that many self-play games
+public final class SpectatorView extends Canvas {
+    private static final long serialVersionUID = 1L;
+    private static final int GAP = 4; // pixels between boards
+    private static final Color BACKGROUND = Color.BLACK;
+
+    private final List<Game> games = new CopyOnWriteArrayList<>();
+    private final List<int[]> drawn = new ArrayList<>(); // squares last drawn per board, EDT only
+    private final Timer timer;
+    private VolatileImage backBuffer;
+    private SpriteCache sprites; // at tileSize, replaced (and the old one dropped) on a resize
+    private int columns;
+    private int tileSize;
+
+    public SpectatorView(int fps) {
+        setBackground(BACKGROUND);
+        timer = new Timer(1000 / Math.max(1, fps), e -> refresh());
+        timer.setCoalesce(true); // a slow frame drops ticks instead of queueing them
+    }
+
+    // Add a game to the grid (safe from any thread); it is drawn from the next tick on
+    public void addGame(Game game) {
+        games.add(game);
+    }
+
+    public void start() {
+        SpriteAtlas.load();
+        timer.start();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    // Called on the event thread every tick: bring the back buffer up to date with the games
+    private void refresh() {
+        if (!prepareBuffer()) {
+            return;
+        }
+        Graphics2D g = backBuffer.createGraphics();
+        for (int board = 0; board < games.size(); board++) {
+            long changed = drawChanges(g, board);
+            if (changed != 0) {
+                Rectangle area = changedArea(board, changed);
+                repaint(area.x, area.y, area.width, area.height);
+            }
+        }
+        g.dispose();
+    }
+
+    // Size the grid to the component and (re)create the buffer; every board is redrawn in
+    // full after a resize or when the buffer lost its contents. False if not yet showing.
+    private boolean prepareBuffer() {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        int width = getWidth();
+        int height = getHeight();
+        int count = games.size();
+        if (config == null || width <= 0 || height <= 0 || count == 0) {
+            return false;
+        }
+        int newColumns = (int) Math.ceil(Math.sqrt(count * (double) width / height));
+        int rows = (count + newColumns - 1) / newColumns;
+        int newTile = Math.max(1, Math.min((width - GAP) / newColumns - GAP, (height - GAP) / rows - GAP) / 8);
+        boolean invalid = newColumns != columns || newTile != tileSize || backBuffer == null
+            || backBuffer.getWidth() != width || backBuffer.getHeight() != height;
+        if (!invalid) {
+            int state = backBuffer.validate(config);
+            if (state == VolatileImage.IMAGE_INCOMPATIBLE) {
+                backBuffer = null;
+                invalid = true;
+            } else if (state == VolatileImage.IMAGE_RESTORED) {
+                invalid = true;
+            }
+        }
+        if (invalid) {
+            columns = newColumns;
+            if (newTile != tileSize) {
+                tileSize = newTile;
+                sprites = new SpriteCache(SpriteAtlas.get(), tileSize);
+            }
+            if (backBuffer == null || backBuffer.getWidth() != width || backBuffer.getHeight() != height) {
+                backBuffer = config.createCompatibleVolatileImage(width, height);
+            }
+            Graphics2D g = backBuffer.createGraphics();
+            g.setColor(BACKGROUND);
+            g.fillRect(0, 0, width, height);
+            g.dispose();
+            drawn.clear();
+            repaint();
+        }
+        while (drawn.size() < count) {
+            int[] squares = new int[64];
+            Arrays.fill(squares, Integer.MIN_VALUE); // matches no piece: draw every tile
+            drawn.add(squares);
+        }
+        return true;
+    }
+
+    // Redraw the tiles of one board that differ from the game; returns them as a bitboard
+    private long drawChanges(Graphics2D g, int board) {
+        Position position = games.get(board).position();
+        int[] squares = drawn.get(board);
+        int left = boardX(board);
+        int top = boardY(board);
+        long changed = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = position.pieceAt(sq);
+            if (piece == squares[sq]) {
+                continue;
+            }
+            squares[sq] = piece;
+            changed |= 1L << sq;
+            int tx = (sq & 7) * tileSize;
+            int ty = (sq >> 3) * tileSize;
+            g.drawImage(sprites.board(), left + tx, top + ty, left + tx + tileSize, top + ty + tileSize,
+                tx, ty, tx + tileSize, ty + tileSize, null);
+            Image sprite = piece == Piece.NONE ? null : sprites.sprite(piece);
+            if (sprite != null) {
+                g.drawImage(sprite, left + tx, top + ty, null);
+            }
+        }
+        return changed;
+    }
+
+    // Bounding rectangle of the changed tiles of a board
+    private Rectangle changedArea(int board, long changed) {
+        int minX = 7, maxX = 0, minY = 7, maxY = 0;
+        for (long remaining = changed; remaining != 0; remaining &= remaining - 1) {
+            int sq = Long.numberOfTrailingZeros(remaining);
+            minX = Math.min(minX, sq & 7);
+            maxX = Math.max(maxX, sq & 7);
+            minY = Math.min(minY, sq >> 3);
+            maxY = Math.max(maxY, sq >> 3);
+        }
+        return new Rectangle(boardX(board) + minX * tileSize, boardY(board) + minY * tileSize,
+            (maxX - minX + 1) * tileSize, (maxY - minY + 1) * tileSize);
+    }
+
+    private int boardX(int board) {
+        return GAP + (board % columns) * (8 * tileSize + GAP);
+    }
+
+    private int boardY(int board) {
+        return GAP + (board / columns) * (8 * tileSize + GAP);
+    }
+
+    // The back buffer already holds every board: just copy the requested area
+    @Override
+    public void update(Graphics g) {
+        paint(g);
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        if (backBuffer == null || backBuffer.contentsLost()) {
+            refresh(); // first frame, or the buffer was lost: rebuild it before copying
+        }
+        if (backBuffer != null) {
+            g.drawImage(backBuffer, 0, 0, null);
+        } else {
+            g.setColor(BACKGROUND);
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int boards = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 200;
+        int fps = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        SpriteAtlas.load();
+
+        GameServer server = new GameServer(Runtime.getRuntime().availableProcessors(), Search.Limits.time(millis), 4);
+        SpectatorView view = new SpectatorView(fps);
+        Frame frame = new Frame("Spectator - " + boards + " games");
+        frame.add(view);
+        frame.setSize(1280, 960);
+        frame.addWindowListener(new WindowAdapter() {
+            public void windowClosing(WindowEvent we) {
+                view.stop();
+                server.shutdown();
+                frame.dispose();
+            }
+        });
+        for (int i = 0; i < boards; i++) {
+            long id = server.newGame(true, true);
+            view.addGame(server.game(id));
+            server.playOut(id, 400);
+        }
+        frame.setVisible(true);
+        view.start();
+    }
+}
@@ -0,0 +1,150 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+
+// The twelve piece images, decoded once per JVM and shared by every board view.
+// They come from pieces.png, one packed strip of square cells in piece ordinal order
+// (white pawn ... white king, then black), so startup decodes a single file and a piece
+// is found by array index. The strip is read from the classpath, so the game finds it
+// whatever directory it is started from, and decoding starts as soon as load() is called
+// rather than lazily on the first paint. The separate wp.png ... bk.png it is packed from
+// are used if the strip is missing. The atlas never changes once built; scaled copies for
+// a tile size are made once and shared too (see SpriteCache).
+//
+//   java SpriteAtlas pack [pieces.png]   rebuild the strip from the twelve separate images
+public final class SpriteAtlas {
+    static final String PACKED = "pieces.png";
+
+    private static volatile CompletableFuture<SpriteAtlas> shared;
+
+    private final BufferedImage[] images; // by piece ordinal, null if missing
+    private final ConcurrentHashMap<Integer, SpriteCache> scaled = new ConcurrentHashMap<>();
+
+    private SpriteAtlas(BufferedImage[] images) {
+        this.images = images;
+    }
+
+    // Start decoding the shared atlas in the background (once; later calls return the same load)
+    public static CompletableFuture<SpriteAtlas> load() {
+        CompletableFuture<SpriteAtlas> result = shared;
+        if (result == null) {
+            synchronized (SpriteAtlas.class) {
+                result = shared;
+                if (result == null) {
+                    result = CompletableFuture.supplyAsync(SpriteAtlas::loadPacked)
+                        .thenCompose(atlas -> atlas != null ? CompletableFuture.completedFuture(atlas)
+                            : loadSeparate());
+                    shared = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // The shared atlas, waiting for the load if it is still running
+    public static SpriteAtlas get() {
+        return load().join();
+    }
+
+    // Cut the packed strip into its cells; null if there is no usable strip
+    private static SpriteAtlas loadPacked() {
+        BufferedImage strip = read(PACKED, false);
+        if (strip == null) {
+            return null;
+        }
+        int cell = strip.getHeight();
+        if (strip.getWidth() != cell * Piece.COUNT) {
+            System.err.println(PACKED + " is not a strip of " + Piece.COUNT + " square cells");
+            return null;
+        }
+        BufferedImage[] images = new BufferedImage[Piece.COUNT];
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            images[piece] = strip.getSubimage(piece * cell, 0, cell, cell);
+        }
+        return new SpriteAtlas(images);
+    }
+
+    // Fallback: decode the twelve separate images in parallel
+    private static CompletableFuture<SpriteAtlas> loadSeparate() {
+        List<CompletableFuture<BufferedImage>> loads = new ArrayList<>();
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            String name = fileName(piece);
+            loads.add(CompletableFuture.supplyAsync(() -> read(name, true)));
+        }
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]))
+            .thenApply(done -> {
+                BufferedImage[] images = new BufferedImage[Piece.COUNT];
+                for (int piece = 0; piece < Piece.COUNT; piece++) {
+                    images[piece] = loads.get(piece).join();
+                }
+                return new SpriteAtlas(images);
+            });
+    }
+
+    // The white pawn is wp.png, the black king bk.png
+    static String fileName(int piece) {
+        return (Piece.color(piece) == Piece.WHITE ? "w" : "b")
+            + Character.toLowerCase(Piece.toChar(piece)) + ".png";
+    }
+
+    // A missing image is reported only when required; a broken one always is
+    private static BufferedImage read(String name, boolean required) {
+        URL url = SpriteAtlas.class.getResource("/" + name);
+        if (url == null) {
+            if (required) {
+                System.err.println("Piece image not found on the classpath: " + name);
+            }
+            return null;
+        }
+        try {
+            return ImageIO.read(url);
+        } catch (IOException e) {
+            System.err.println("Cannot read piece image " + name + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Full-size image of a piece ordinal, or null if it failed to load
+    public BufferedImage image(int piece) {
+        return images[piece];
+    }
+
+    // Sprites scaled to a tile size, built on first use and shared by every view of that size.
+    // Every size asked for stays cached, so this is for fixed tile sizes; a view whose tiles
+    // follow its window builds its own SpriteCache instead.
+    public SpriteCache scaled(int tileSize) {
+        return scaled.computeIfAbsent(tileSize, size -> new SpriteCache(this, size));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 1 && args[0].equals("pack")) {
+            SpriteAtlas atlas = loadSeparate().join();
+            int cell = 0;
+            for (BufferedImage image : atlas.images) {
+                if (image == null) {
+                    System.err.println("Every piece image is needed to pack the atlas");
+                    return;
+                }
+                cell = Math.max(cell, Math.max(image.getWidth(), image.getHeight()));
+            }
+            BufferedImage strip = new BufferedImage(cell * Piece.COUNT, cell, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = strip.createGraphics();
+            for (int piece = 0; piece < Piece.COUNT; piece++) {
+                g.drawImage(atlas.images[piece], piece * cell, 0, cell, cell, null);
+            }
+            g.dispose();
+            File out = new File(args.length > 1 ? args[1] : PACKED);
+            ImageIO.write(strip, "png", out);
+            System.out.println("packed " + Piece.COUNT + " pieces of " + cell + "px into " + out);
+        } else {
+            System.err.println("Usage: java SpriteAtlas pack [pieces.png]");
+        }
+    }
+}
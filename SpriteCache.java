@@ -0,0 +1,76 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+// Piece sprites scaled once to one tile size, plus the empty board pre-drawn at that size.
+// drawImage with a width and height resamples the source PNG on every call; drawing a
+// pre-scaled image is a plain copy. The images are created compatible with the screen so
+// Java2D can cache them in video memory; without a screen they are ordinary ARGB images.
+public final class SpriteCache {
+    static final Color LIGHT = Color.LIGHT_GRAY;
+    static final Color DARK = Color.DARK_GRAY;
+
+    private final int tileSize;
+    private final BufferedImage[] sprites = new BufferedImage[Piece.COUNT]; // by piece ordinal
+    private final BufferedImage board;
+
+    // Fixed-size views share one cache per size through SpriteAtlas.scaled(tileSize); a view
+    // that resizes its tiles owns the cache for its current size
+    SpriteCache(SpriteAtlas atlas, int tileSize) {
+        this.tileSize = tileSize;
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            BufferedImage image = atlas.image(piece);
+            if (image != null) {
+                sprites[piece] = scale(image);
+            }
+        }
+
+        board = createImage(8 * tileSize, Transparency.OPAQUE);
+        Graphics2D g = board.createGraphics();
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                g.setColor((i + j) % 2 == 0 ? LIGHT : DARK);
+                g.fillRect(j * tileSize, i * tileSize, tileSize, tileSize);
+            }
+        }
+        g.dispose();
+    }
+
+    public int tileSize() {
+        return tileSize;
+    }
+
+    // The empty board, 8 tiles square
+    public BufferedImage board() {
+        return board;
+    }
+
+    // Scaled sprite of a piece ordinal, or null if its image failed to load
+    public BufferedImage sprite(int piece) {
+        return sprites[piece];
+    }
+
+    // Scale once with bicubic filtering; the per-frame copies then need no filtering at all
+    private BufferedImage scale(Image source) {
+        BufferedImage scaled = createImage(tileSize, Transparency.TRANSLUCENT);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, tileSize, tileSize, null);
+        g.dispose();
+        return scaled;
+    }
+
+    private static BufferedImage createImage(int size, int transparency) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(size, size, transparency);
+        }
+        return new BufferedImage(size, size, transparency == Transparency.OPAQUE
+            ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+}
@@ -0,0 +1,90 @@
+// Static exchange evaluation: the material outcome of a capture sequence on one square
+// when both sides always recapture with their least valuable attacker and may stop
+// whenever continuing would lose material. Works on bitboards only (no make/unmake):
+// pieces are lifted from an occupancy copy, which also uncovers sliders behind them.
+// Pins are ignored, as usual for SEE.
+final class StaticExchange {
+    private StaticExchange() {}
+
+    // Does the move win at least 'threshold' centipawns by exchange?
+    // atLeast(pos, move, 0) is the usual "not a losing capture" test.
+    static boolean atLeast(Position pos, int move, int threshold) {
+        if (Move.isCastling(move) || Move.isPromotion(move)) {
+            return 0 >= threshold; // not worth modelling; callers treat promotions separately
+        }
+        int[] values = Evaluation.PIECE_VALUES;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int captured = Move.isEnPassant(move) ? Piece.PAWN
+            : pos.squares[to] == Piece.NONE ? -1 : Piece.type(pos.squares[to]);
+
+        // What we win if nothing recaptures, and what we risk if the mover is taken back
+        int swap = (captured < 0 ? 0 : values[captured]) - threshold;
+        if (swap < 0) {
+            return false;
+        }
+        swap = values[Piece.type(pos.squares[from])] - swap;
+        if (swap <= 0) {
+            return true;
+        }
+
+        long[] p = pos.pieces;
+        long occupied = pos.occupied ^ (1L << from) ^ (1L << to);
+        if (Move.isEnPassant(move)) {
+            occupied ^= 1L << (pos.whiteToMove ? to + 8 : to - 8);
+        }
+        long diagonal = p[Piece.WB] | p[Piece.BB] | p[Piece.WQ] | p[Piece.BQ];
+        long straight = p[Piece.WR] | p[Piece.BR] | p[Piece.WQ] | p[Piece.BQ];
+        long attackers = Attacks.attackersTo(pos, to, occupied);
+        int side = pos.sideToMove();
+        int result = 1;
+
+        while (true) {
+            side ^= 1;
+            attackers &= occupied;
+            long ours = attackers & pos.colors[side];
+            if (ours == 0) {
+                break;
+            }
+            result ^= 1;
+
+            // Recapture with the least valuable attacker; 'swap' flips to the other side's view
+            int base = side * 6;
+            long bb;
+            if ((bb = ours & p[base + Piece.PAWN]) != 0) {
+                if ((swap = values[Piece.PAWN] - swap) < result) {
+                    break;
+                }
+                occupied ^= bb & -bb;
+                attackers |= Attacks.bishop(to, occupied) & diagonal;
+            } else if ((bb = ours & p[base + Piece.KNIGHT]) != 0) {
+                if ((swap = values[Piece.KNIGHT] - swap) < result) {
+                    break;
+                }
+                occupied ^= bb & -bb;
+            } else if ((bb = ours & p[base + Piece.BISHOP]) != 0) {
+                if ((swap = values[Piece.BISHOP] - swap) < result) {
+                    break;
+                }
+                occupied ^= bb & -bb;
+                attackers |= Attacks.bishop(to, occupied) & diagonal;
+            } else if ((bb = ours & p[base + Piece.ROOK]) != 0) {
+                if ((swap = values[Piece.ROOK] - swap) < result) {
+                    break;
+                }
+                occupied ^= bb & -bb;
+                attackers |= Attacks.rook(to, occupied) & straight;
+            } else if ((bb = ours & p[base + Piece.QUEEN]) != 0) {
+                if ((swap = values[Piece.QUEEN] - swap) < result) {
+                    break;
+                }
+                occupied ^= bb & -bb;
+                attackers |= (Attacks.bishop(to, occupied) & diagonal) | (Attacks.rook(to, occupied) & straight);
+            } else {
+                // Only the king is left: it may recapture unless the square is still defended
+                return (attackers & ~pos.colors[side]) != 0 ? (result ^ 1) != 0 : result != 0;
+            }
+        }
+        return result != 0;
+    }
+}
@@ -0,0 +1,354 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Endgame tablebases for positions with few pieces, read through memory-mapped files.
+// A table holds one byte per position of one material signature (such as KRvK, the
+// stronger side always as white) and side to move:
+//   0 draw, d > 0 win in d plies, -(d + 1) loss in d plies, -128 not a legal position
+// where a distance counts plies to mate or to a winning conversion (a capture or a
+// promotion into a smaller table), so following the shortest win always makes progress.
+// The index is the side to move followed by the square of every piece in signature order.
+//
+// Tables are found by a key made of the piece counts, in an open-addressed array that
+// probes read without locking or allocating; the search probes at every node. Misses
+// are resolved once per material under a lock, and tables that do not exist are
+// remembered. At most cacheSize files are mapped at a time, the least recently used
+// (approximately: a clock sweep) being dropped first. One instance per directory is
+// shared by the whole JVM (see open). Positions with castling rights or an en-passant
+// capture available are never probed: the tables hold neither.
+//
+//   java Tablebase generate <dir> KQvK KRvK KPvK   build tables (and the ones they convert into)
+//   java Tablebase probe <dir> <fen>              value and best move of a position
+//
+// Tables are generated by retrograde analysis here rather than read from Syzygy files:
+// the Syzygy index and compression schemes are far larger than this engine, and these
+// uncompressed tables cover the three- and four-piece endings a game actually reaches.
+public final class Tablebase {
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+    static final byte INVALID = -128;
+    static final String SUFFIX = ".cgtb";
+    private static final byte[] MAGIC = {'C', 'G', 'T', 'B'};
+    private static final String LETTERS = "PNBRQK";
+
+    private static final ConcurrentHashMap<Path, Tablebase> OPEN = new ConcurrentHashMap<>();
+
+    // One material signature: how to index it and, while it is mapped, its data
+    private static final class Table {
+        final long material;
+        final String name;
+        final boolean flip;
+        final int[] slots;
+        volatile boolean exists = true;  // false once the file is found missing or malformed
+        volatile MappedByteBuffer data;  // null until mapped, and again once evicted
+        boolean used;                    // clock bit for eviction; a stale read only delays it
+
+        Table(long material, String name, boolean flip) {
+            this.material = material;
+            this.name = name;
+            this.flip = flip;
+            this.slots = slots(name);
+        }
+    }
+
+    private final Path directory;
+    private final int maxPieces;
+    private final int cacheSize;
+    private volatile Table[] tables = new Table[16]; // by material, linear probing; replaced, never changed
+    private int tableCount;                          // guarded by this, like every change below
+    private int mappedCount;
+    private int clockHand;
+
+    // A private instance; everything but the generator (which writes tables as it goes)
+    // should use open()
+    Tablebase(Path directory, int cacheSize) {
+        this.directory = directory;
+        this.cacheSize = Math.max(1, cacheSize);
+        int max = 0;
+        File[] files = directory.toFile().listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                max = Math.max(max, file.getName().length() - SUFFIX.length() - 1); // one letter per piece, plus the 'v'
+            }
+        }
+        maxPieces = max;
+    }
+
+    // The tables of a directory, shared by the JVM; at most -Dchess.tablebaseCache files
+    // (default 16) are mapped at once
+    public static Tablebase open(Path directory) {
+        return OPEN.computeIfAbsent(directory.toAbsolutePath().normalize(),
+            dir -> new Tablebase(dir, Integer.getInteger("chess.tablebaseCache", 16)));
+    }
+
+    // Tables in -Dchess.tablebases (default ./tablebases), or null if there are none
+    public static Tablebase openDefault() {
+        Tablebase tablebase = open(Paths.get(System.getProperty("chess.tablebases", "tablebases")));
+        return tablebase.maxPieces > 0 ? tablebase : null;
+    }
+
+    // Positions with more pieces than this are never in a table
+    public int maxPieces() {
+        return maxPieces;
+    }
+
+    // Value of the position for the side to move in the encoding above, or UNKNOWN
+    public int probe(Position pos) {
+        if (Long.bitCount(pos.occupied) > maxPieces || pos.castling != 0 || canCaptureEnPassant(pos)) {
+            return UNKNOWN;
+        }
+        long material = material(pos);
+        Table table = find(material);
+        if (table == null) {
+            table = add(pos, material);
+        }
+        MappedByteBuffer data = table.data;
+        if (data == null) {
+            if (!table.exists || (data = map(table)) == null) {
+                return UNKNOWN;
+            }
+        }
+        if (!table.used) {
+            table.used = true;
+        }
+        byte value = data.get(MAGIC.length + index(pos, table.slots, table.flip));
+        return value == INVALID ? UNKNOWN : value;
+    }
+
+    // Position keeps an en-passant square only while a pawn of the side to move can use it
+    private static boolean canCaptureEnPassant(Position pos) {
+        return pos.epSquare != Position.NO_SQUARE;
+    }
+
+    // Piece counts, four bits for each piece but the kings
+    private static long material(Position pos) {
+        long material = 0;
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            if (Piece.type(piece) != Piece.KING) {
+                material = (material << 4) | Long.bitCount(pos.pieces[piece]);
+            }
+        }
+        return material;
+    }
+
+    private static int slot(long material, int length) {
+        return (int) ((material * 0x9E3779B97F4A7C15L) >>> 40) & (length - 1);
+    }
+
+    private Table find(long material) {
+        Table[] tables = this.tables;
+        for (int i = slot(material, tables.length); tables[i] != null; i = (i + 1) & (tables.length - 1)) {
+            if (tables[i].material == material) {
+                return tables[i];
+            }
+        }
+        return null;
+    }
+
+    // First probe of a material: name its table and publish a copy of the array holding it
+    private synchronized Table add(Position pos, long material) {
+        Table table = find(material);
+        if (table != null) {
+            return table;
+        }
+        boolean flip = needsFlip(pos);
+        table = new Table(material, signature(pos, flip), flip);
+        Table[] old = tables;
+        Table[] copy = new Table[tableCount + 1 > old.length / 2 ? old.length * 2 : old.length];
+        for (Table entry : old) {
+            if (entry != null) {
+                insert(copy, entry);
+            }
+        }
+        insert(copy, table);
+        tableCount++;
+        tables = copy;
+        return table;
+    }
+
+    private static void insert(Table[] tables, Table table) {
+        int i = slot(table.material, tables.length);
+        while (tables[i] != null) {
+            i = (i + 1) & (tables.length - 1);
+        }
+        tables[i] = table;
+    }
+
+    // Score for the search: wins rank below real mates but above any evaluation
+    static int score(int value, int ply) {
+        if (value == 0) {
+            return 0;
+        }
+        return value > 0 ? Search.TB_WIN - ply - value : -(Search.TB_WIN - ply - (-value - 1));
+    }
+
+    // The best move by table values: the quickest win, else a draw, else the longest loss.
+    // Move.NONE when the position or one of its successors is not covered.
+    public int bestMove(Position pos) {
+        if (probe(pos) == UNKNOWN) {
+            return Move.NONE;
+        }
+        int[] moves = new int[MoveGen.MAX_MOVES];
+        int count = MoveGen.generateLegal(pos, moves);
+        int best = Move.NONE;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            pos.makeMove(moves[i]);
+            int child = childValue(pos);
+            pos.unmakeMove();
+            if (child == UNKNOWN) {
+                return Move.NONE;
+            }
+            // Rank from our side: wins by shortness, then draws, then losses by length
+            int rank = child < 0 ? 1000 - (-child - 1) : child == 0 ? 0 : -1000 + child;
+            if (rank > bestRank) {
+                bestRank = rank;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    // Value for the side to move right after a move, including positions no table holds
+    private int childValue(Position pos) {
+        if (MoveGen.generateLegal(pos, new int[MoveGen.MAX_MOVES]) == 0) {
+            return Attacks.inCheck(pos, pos.sideToMove()) ? -1 : 0;
+        }
+        return pos.hasInsufficientMaterial() ? 0 : probe(pos);
+    }
+
+    // Map a table's file, first dropping a mapping that has not been used lately if the
+    // cache is full; null if the file is missing or malformed
+    private synchronized MappedByteBuffer map(Table table) {
+        if (table.data != null || !table.exists) {
+            return table.data;
+        }
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(directory.resolve(table.name + SUFFIX))) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            table.exists = false;
+            return null;
+        }
+        if (data.capacity() != MAGIC.length + 2 * (1 << (6 * table.slots.length))) {
+            table.exists = false;
+            return null;
+        }
+        if (mappedCount >= cacheSize) {
+            evictOne();
+        }
+        // Probes still holding an evicted buffer keep reading it; the mapping is released
+        // once the last of them lets go
+        table.data = data;
+        table.used = true;
+        mappedCount++;
+        return data;
+    }
+
+    // Clock sweep: clear the bit of recently used tables and drop the first one without it
+    private void evictOne() {
+        Table[] tables = this.tables;
+        for (int step = 0; step < 2 * tables.length + 1; step++) {
+            Table table = tables[clockHand];
+            clockHand = (clockHand + 1) % tables.length;
+            if (table == null || table.data == null) {
+                continue;
+            }
+            if (table.used) {
+                table.used = false;
+            } else {
+                table.data = null;
+                mappedCount--;
+                return;
+            }
+        }
+    }
+
+    // The weaker side is stored as black, so positions where black is stronger are read
+    // with ranks and colours swapped
+    static boolean needsFlip(Position pos) {
+        int white = material(pos, Piece.WHITE);
+        int black = material(pos, Piece.BLACK);
+        if (white != black) {
+            return black > white;
+        }
+        return side(pos, Piece.BLACK).compareTo(side(pos, Piece.WHITE)) > 0;
+    }
+
+    private static int material(Position pos, int color) {
+        int sum = 0;
+        for (int type = Piece.PAWN; type < Piece.KING; type++) {
+            sum += Long.bitCount(pos.pieces[Piece.make(color, type)]) * Evaluation.PIECE_VALUES[type];
+        }
+        return sum;
+    }
+
+    // Pieces of one side, king first then queens down to pawns: "KRP"
+    private static String side(Position pos, int color) {
+        StringBuilder sb = new StringBuilder("K");
+        for (int type = Piece.QUEEN; type >= Piece.PAWN; type--) {
+            for (int n = Long.bitCount(pos.pieces[Piece.make(color, type)]); n > 0; n--) {
+                sb.append(LETTERS.charAt(type));
+            }
+        }
+        return sb.toString();
+    }
+
+    static String signature(Position pos, boolean flip) {
+        return flip ? side(pos, Piece.BLACK) + "v" + side(pos, Piece.WHITE)
+            : side(pos, Piece.WHITE) + "v" + side(pos, Piece.BLACK);
+    }
+
+    // Coloured piece of every index slot, in signature order
+    static int[] slots(String name) {
+        int split = name.indexOf('v');
+        int[] slots = new int[name.length() - 1];
+        for (int i = 0, slot = 0; i < name.length(); i++) {
+            if (i != split) {
+                slots[slot++] = Piece.make(i < split ? Piece.WHITE : Piece.BLACK, LETTERS.indexOf(name.charAt(i)));
+            }
+        }
+        return slots;
+    }
+
+    static int index(Position pos, int[] slots, boolean flip) {
+        int index = flip ? pos.sideToMove() ^ 1 : pos.sideToMove();
+        long remaining = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (i == 0 || slots[i] != slots[i - 1]) {
+                remaining = pos.pieces[flip ? Piece.make(Piece.color(slots[i]) ^ 1, Piece.type(slots[i])) : slots[i]];
+            }
+            int sq = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            index = (index << 6) | (flip ? sq ^ 56 : sq);
+        }
+        return index;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("generate")) {
+            Path dir = Paths.get(args[1]);
+            Files.createDirectories(dir);
+            for (int i = 2; i < args.length; i++) {
+                TablebaseGenerator.generate(args[i], dir);
+            }
+        } else if (args.length >= 3 && args[0].equals("probe")) {
+            Tablebase tablebase = open(Paths.get(args[1]));
+            Position pos = Position.fromFen(String.join(" ", Arrays.copyOfRange(args, 2, args.length)));
+            int value = tablebase.probe(pos);
+            System.out.println(value == UNKNOWN ? "not in the tablebases"
+                : value == 0 ? "draw" : value > 0 ? "win in " + value + " plies" : "loss in " + (-value - 1) + " plies");
+            if (value != UNKNOWN) {
+                System.out.println("best move " + Move.toString(tablebase.bestMove(pos)));
+            }
+        } else {
+            System.err.println("Usage: java Tablebase generate <dir> <signature...> | probe <dir> <fen>");
+        }
+    }
+}
@@ -0,0 +1,250 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Builds Tablebase files by retrograde analysis, one material signature at a time.
+// Every index is set up as a real Position so the normal legal move generator decides
+// what can be played. Pass 0 finds mates, stalemates and the outcome of every capture
+// or promotion (read from the smaller tables, which are generated first). Then, level by
+// level, a position is a win in k plies if a move reaches a loss in k - 1, and a loss in
+// k if every move reaches a win already known. Whatever is left unresolved is a draw.
+final class TablebaseGenerator {
+    private static final byte UNRESOLVED = 0;
+    private static final byte WIN = 1;
+    private static final byte LOSS = 2;
+    private static final byte DRAW = 3;
+    private static final byte ILLEGAL = 4;
+
+    private final int[] slots;
+    private final int pieceCount;
+    private final Position pos = new Position();
+    private final int[] moves = new int[MoveGen.MAX_MOVES];
+    private final int[] squares;
+
+    private TablebaseGenerator(String name) {
+        slots = Tablebase.slots(name);
+        pieceCount = slots.length;
+        squares = new int[pieceCount];
+    }
+
+    // Write <dir>/<name>.cgtb unless it exists, generating the tables it converts into first
+    static void generate(String name, Path dir) throws IOException {
+        Path file = dir.resolve(name + Tablebase.SUFFIX);
+        if (Files.exists(file)) {
+            return;
+        }
+        for (String smaller : conversions(name)) {
+            generate(smaller, dir);
+        }
+        long start = System.nanoTime();
+        byte[] values = new TablebaseGenerator(name).solve(new Tablebase(dir, 64));
+        Path temp = dir.resolve(name + Tablebase.SUFFIX + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            out.write(new byte[] {'C', 'G', 'T', 'B'});
+            out.write(values);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        System.out.printf("%s: %d positions in %.1f s%n", name, values.length, (System.nanoTime() - start) / 1e9);
+    }
+
+    // Signatures reachable by one capture or promotion that can still be won
+    static Set<String> conversions(String name) {
+        int[] slots = Tablebase.slots(name);
+        Set<String> result = new TreeSet<>();
+        for (int i = 0; i < slots.length; i++) {
+            int type = Piece.type(slots[i]);
+            if (type == Piece.KING) {
+                continue;
+            }
+            addIfWinnable(result, canonical(slots, i, Piece.NONE));
+            if (type == Piece.PAWN) {
+                for (int promotion = Piece.KNIGHT; promotion <= Piece.QUEEN; promotion++) {
+                    addIfWinnable(result, canonical(slots, i, Piece.make(Piece.color(slots[i]), promotion)));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void addIfWinnable(Set<String> names, String name) {
+        if (name != null) {
+            names.add(name);
+        }
+    }
+
+    // Signature after replacing one slot (Piece.NONE removes it), or null if it is a dead draw
+    private static String canonical(int[] slots, int changed, int replacement) {
+        Position sample = new Position();
+        int sq = 8; // ranks 7 to 2 only, so sample pawns are never on a back rank
+        for (int i = 0; i < slots.length; i++) {
+            int piece = i == changed ? replacement : slots[i];
+            if (piece != Piece.NONE) {
+                sample.put(piece, sq++);
+            }
+        }
+        if (sample.hasInsufficientMaterial()) {
+            return null;
+        }
+        return Tablebase.signature(sample, Tablebase.needsFlip(sample));
+    }
+
+    private byte[] solve(Tablebase smaller) {
+        int size = 2 << (6 * pieceCount);
+        byte[] state = new byte[size];
+        byte[] distance = new byte[size];
+        boolean[] drawnConversion = new boolean[size]; // a capture or promotion holds the draw
+
+        for (int index = 0; index < size; index++) {
+            if (!setUp(index)) {
+                state[index] = ILLEGAL;
+                continue;
+            }
+            int count = MoveGen.generateLegal(pos, moves);
+            if (count == 0) {
+                state[index] = Attacks.inCheck(pos, pos.sideToMove()) ? LOSS : DRAW;
+                continue;
+            }
+            for (int i = 0; i < count && state[index] == UNRESOLVED; i++) {
+                if (!converts(moves[i])) {
+                    continue;
+                }
+                pos.makeMove(moves[i]);
+                int child = convertedValue(smaller);
+                pos.unmakeMove();
+                if (child < 0) {
+                    state[index] = WIN;
+                    distance[index] = 1;
+                } else if (child == 0) {
+                    drawnConversion[index] = true;
+                }
+            }
+        }
+
+        int[] wins = new int[1024];
+        int[] losses = new int[1024];
+        int deepest = 1; // pass 0 already placed conversions at distance 1
+        for (int level = 1; ; level++) {
+            if (level > 126) {
+                throw new IllegalStateException("Distance does not fit the table format");
+            }
+            int winCount = 0;
+            int lossCount = 0;
+            for (int index = 0; index < size; index++) {
+                if (state[index] != UNRESOLVED) {
+                    continue;
+                }
+                setUp(index);
+                int count = MoveGen.generateLegal(pos, moves);
+                boolean win = false;
+                boolean allLose = !drawnConversion[index];
+                for (int i = 0; i < count && !win; i++) {
+                    if (converts(moves[i])) {
+                        continue; // decided in pass 0
+                    }
+                    int child = childIndex(index, moves[i]);
+                    if (state[child] == LOSS && distance[child] == level - 1) {
+                        win = true;
+                    } else if (state[child] != WIN || distance[child] >= level) {
+                        allLose = false;
+                    }
+                }
+                if (win) {
+                    if (winCount == wins.length) {
+                        wins = Arrays.copyOf(wins, winCount * 2);
+                    }
+                    wins[winCount++] = index;
+                } else if (allLose) {
+                    if (lossCount == losses.length) {
+                        losses = Arrays.copyOf(losses, lossCount * 2);
+                    }
+                    losses[lossCount++] = index;
+                }
+            }
+            // Applied after the scan so every result of this level sees only earlier levels
+            for (int i = 0; i < winCount; i++) {
+                state[wins[i]] = WIN;
+                distance[wins[i]] = (byte) level;
+            }
+            for (int i = 0; i < lossCount; i++) {
+                state[losses[i]] = LOSS;
+                distance[losses[i]] = (byte) level;
+            }
+            if (winCount > 0 || lossCount > 0) {
+                deepest = level;
+            } else if (level > deepest) {
+                break;
+            }
+        }
+
+        byte[] values = new byte[size];
+        for (int index = 0; index < size; index++) {
+            switch (state[index]) {
+                case WIN: values[index] = distance[index]; break;
+                case LOSS: values[index] = (byte) (-distance[index] - 1); break;
+                case ILLEGAL: values[index] = Tablebase.INVALID; break;
+                default: values[index] = 0; break;
+            }
+        }
+        return values;
+    }
+
+    private static boolean converts(int move) {
+        return Move.isCapture(move) || Move.isPromotion(move);
+    }
+
+    // Value for the side to move after a conversion, from the smaller tables
+    private int convertedValue(Tablebase smaller) {
+        if (MoveGen.generateLegal(pos, new int[MoveGen.MAX_MOVES]) == 0) {
+            return Attacks.inCheck(pos, pos.sideToMove()) ? -1 : 0;
+        }
+        if (pos.hasInsufficientMaterial()) {
+            return 0;
+        }
+        int value = smaller.probe(pos);
+        if (value == Tablebase.UNKNOWN) {
+            throw new IllegalStateException("Missing table for " + Tablebase.signature(pos, Tablebase.needsFlip(pos)));
+        }
+        return value;
+    }
+
+    // Index after a move that keeps the material: the moving piece's slot changes square
+    private int childIndex(int index, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int child = (index >>> (6 * pieceCount)) ^ 1;
+        for (int i = 0; i < pieceCount; i++) {
+            int sq = (index >>> (6 * (pieceCount - 1 - i))) & 63;
+            child = (child << 6) | (sq == from ? to : sq);
+        }
+        return child;
+    }
+
+    // Place the pieces of an index on the scratch position; false if that is not a legal
+    // position (two pieces on one square, a pawn on a back rank, the side not to move in check)
+    private boolean setUp(int index) {
+        for (int sq = 0; sq < 64; sq++) {
+            if (pos.squares[sq] != Piece.NONE) {
+                pos.remove(sq);
+            }
+        }
+        for (int i = 0; i < pieceCount; i++) {
+            int sq = (index >>> (6 * (pieceCount - 1 - i))) & 63;
+            if (pos.squares[sq] != Piece.NONE
+                || (Piece.type(slots[i]) == Piece.PAWN && (sq < 8 || sq >= 56))) {
+                return false;
+            }
+            squares[i] = sq;
+            pos.put(slots[i], sq);
+        }
+        pos.whiteToMove = (index >>> (6 * pieceCount)) == Piece.WHITE;
+        pos.castling = 0;
+        pos.epSquare = Position.NO_SQUARE;
+        return !Attacks.inCheck(pos, pos.sideToMove() ^ 1);
+    }
+}
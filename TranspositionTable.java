@@ -0,0 +1,150 @@
+import java.util.Arrays;
+
+// Fixed-size transposition table held in a single long[] (no per-entry objects).
+// Each entry is two longs: the key XOR the data, and the data itself. An entry only
+// matches when key ^ data gives back the probed hash, so a torn entry written by two
+// threads at once simply reads as a miss. Entries are grouped in buckets of two:
+// a probe checks both, and a store replaces the same position if present, otherwise
+// the shallower (or stale, from an older search) of the two.
+//
+// Data layout:
+//   bits  0-19  best move (Move encoding)
+//   bits 20-35  score (signed 16 bit)
+//   bits 36-43  depth
+//   bits 44-45  bound
+//   bits 46-51  generation
+public final class TranspositionTable {
+    public static final int UPPER = 1; // score is at most this (fail low)
+    public static final int LOWER = 2; // score is at least this (fail high)
+    public static final int EXACT = 3;
+
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+
+    private final long[] table;
+    private final long bucketMask;
+    private int generation;
+
+    public TranspositionTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        // Largest power-of-two bucket count that fits in the requested size
+        long buckets = Long.highestOneBit(bytes / (BUCKET_LONGS * 8));
+        if (buckets * BUCKET_LONGS > Integer.MAX_VALUE - 8) {
+            buckets = Long.highestOneBit((Integer.MAX_VALUE - 8) / BUCKET_LONGS);
+        }
+        table = new long[(int) (buckets * BUCKET_LONGS)];
+        bucketMask = buckets - 1;
+    }
+
+    public int sizeMegabytes() {
+        return (int) (table.length * 8L / (1024 * 1024));
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        generation = 0;
+    }
+
+    // Called at the start of every search so older entries become preferred victims
+    public void newSearch() {
+        generation = (generation + 1) & 63;
+    }
+
+    // Returns the entry's data for this hash, or 0 when the position is not stored
+    public long probe(long hash) {
+        int index = (int) (hash & bucketMask) * BUCKET_LONGS;
+        for (int i = index; i < index + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == hash && data != 0) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    public void store(long hash, int move, int score, int depth, int bound, int ply) {
+        int index = (int) (hash & bucketMask) * BUCKET_LONGS;
+        int victim = index;
+        int victimValue = Integer.MAX_VALUE;
+        for (int i = index; i < index + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == hash) {
+                // Same position: keep the old best move if we have none, and don't let a
+                // shallow non-exact result overwrite a deeper one from this search
+                if (move == Move.NONE) {
+                    move = move(data);
+                }
+                if (bound != EXACT && depth(data) > depth + 2 && generation(data) == generation) {
+                    return;
+                }
+                victim = i;
+                break;
+            }
+            // Prefer replacing entries from older searches, then shallower ones
+            int value = depth(data) + (generation(data) == generation ? 256 : 0);
+            if (value < victimValue) {
+                victimValue = value;
+                victim = i;
+            }
+        }
+        long data = (move & 0xFFFFFL)
+            | ((long) (toTable(score, ply) & 0xFFFF) << 20)
+            | ((long) Math.min(depth, 255) << 36)
+            | ((long) bound << 44)
+            | ((long) generation << 46);
+        table[victim] = hash ^ data;
+        table[victim + 1] = data;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFFF);
+    }
+
+    // Score adjusted back to the probing ply (mate and tablebase scores are stored relative
+    // to the node)
+    public static int score(long data, int ply) {
+        int score = (short) (data >>> 20);
+        if (score >= Search.TB_WIN_MIN) {
+            return score - ply;
+        }
+        if (score <= -Search.TB_WIN_MIN) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 36) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 44) & 3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 46) & 63);
+    }
+
+    private static int toTable(int score, int ply) {
+        if (score >= Search.TB_WIN_MIN) {
+            return score + ply;
+        }
+        if (score <= -Search.TB_WIN_MIN) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    // Per-mille of sampled entries filled during the current search
+    public int hashfull() {
+        int used = 0;
+        int samples = Math.min(1000, table.length / ENTRY_LONGS);
+        for (int i = 0; i < samples; i++) {
+            long data = table[i * ENTRY_LONGS + 1];
+            if (data != 0 && generation(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / Math.max(1, samples);
+    }
+}
@@ -0,0 +1,48 @@
+import java.util.SplittableRandom;
+
+// Zobrist keys for position hashing. Position keeps its hash up to date by XOR-ing these
+// in and out as pieces, side to move, castling rights and the en-passant square change.
+public final class Zobrist {
+    static final long[][] PIECES = new long[Piece.COUNT][64];
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT = new long[8]; // by file
+    static final long SIDE;                        // XORed in when black is to move
+
+    static {
+        // Fixed seed so hashes are stable between runs (opening books and logs depend on it)
+        SplittableRandom random = new SplittableRandom(0x5EED_C0DE_2024L);
+        for (long[] keys : PIECES) {
+            for (int sq = 0; sq < 64; sq++) {
+                keys[sq] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            EN_PASSANT[i] = random.nextLong();
+        }
+        SIDE = random.nextLong();
+    }
+
+    private Zobrist() {}
+
+    // Full recomputation, used when a position is built from scratch
+    static long hash(Position pos) {
+        long hash = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = pos.squares[sq];
+            if (piece != Piece.NONE) {
+                hash ^= PIECES[piece][sq];
+            }
+        }
+        hash ^= CASTLING[pos.castling];
+        if (pos.epSquare != Position.NO_SQUARE && pos.canCaptureOnto(pos.sideToMove(), pos.epSquare)) {
+            hash ^= EN_PASSANT[pos.epSquare & 7];
+        }
+        if (!pos.whiteToMove) {
+            hash ^= SIDE;
+        }
+        return hash;
+    }
+}
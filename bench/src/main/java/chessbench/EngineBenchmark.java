@@ -0,0 +1,77 @@
+package chessbench;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The Bench workloads under JMH. One invocation runs one batch of a workload (the suite
+// positions once, a perft to depth 4, ...); the "units" counter reports the workload's own
+// unit per second (positions, moves, nodes or boards), as the Bench table does.
+//
+// The engine classes live in the default package, which no named package can import, and
+// JMH only accepts benchmarks in a named package, so the workloads are fetched by name.
+// The render.* workloads open a window and need a display:
+//   java -jar bench/target/benchmarks.jar -p workload=movegen.legal,search.suite.d5
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+    @Param({
+        "movegen.pseudo", "movegen.legal", "movegen.staged.hashMove", "movegen.staged.captures",
+        "movegen.legal.makeTest", "position.copy", "position.copyMake", "position.makeUnmake",
+        "eval.incremental", "eval.fromScratch", "perft.startpos.d4", "search.suite.d5", "render.paint",
+        "render.paint.move",
+    })
+    public String workload;
+
+    private LongSupplier batch;
+
+    // Operations of the workload's own unit, reported per second next to the batch rate
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Units {
+        public long units;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            units = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        Method factory = Class.forName("Bench").getDeclaredMethod("workload", String.class);
+        factory.setAccessible(true);
+        batch = (LongSupplier) factory.invoke(null, workload);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ((AutoCloseable) batch).close();
+    }
+
+    @Benchmark
+    public long run(Units counter) {
+        long units = batch.getAsLong();
+        counter.units += units;
+        return units;
+    }
+}
@@ -1,11 +1,16 @@
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.VolatileImage;
 import java.util.*;
 import javax.swing.*;
 
 public class cg extends Frame implements MouseListener {
     private static final int TILE_SIZE = 80;
     private static final int BOARD_SIZE = TILE_SIZE * 8;
+    private static final long ALL_SQUARES = -1L;
+    private static final long COMPUTER_MOVE_MILLIS = 1000; // thinking time per computer move
+    private static final int COMPUTER_HASH_MB = 64;        // transposition table size
+    private static final int COMPUTER_THREADS = Runtime.getRuntime().availableProcessors();
     private static final String[] INITIAL_PIECES = {
         "r", "n", "b", "q", "k", "b", "n", "r",
         "p", "p", "p", "p", "p", "p", "p", "p",
@@ -17,19 +22,21 @@ public class cg extends Frame implements MouseListener {
         "R", "N", "B", "Q", "K", "B", "N", "R"
     };
 
-    private String[][] board;
+    private Game game;           // rules, players and the position (source of truth)
+    private String[][] board;    // view of the position used for painting
     private String selectedPiece;
     private int selectedX, selectedY;
-    private boolean isWhiteTurn = true;
     private Set<String> whitePieces;
     private Set<String> blackPieces;
-    private Set<String> validMoves;
-    private Map<String, Image> pieceImages;
+    private long validMoves;     // target squares of the selected piece, one bit per square
+    private final int[] moveBuffer = new int[MoveGen.MAX_MOVES];
+    private int moveCount;
+    private SpriteCache sprites;          // shared piece sprites at TILE_SIZE, fetched on first paint
+    private VolatileImage backBuffer;
+    private long dirtySquares = ALL_SQUARES; // squares the back buffer has not caught up with
     private boolean playWithComputer;
     private boolean isGameOver = false;
-    private Player currentPlayer;
-    private Player whitePlayer;
-    private Player blackPlayer;
+    private boolean computerThinking = false;
     
     // Create a JLabel for move count display
     private JLabel whiteScoreLabel = new JLabel("White: 0 moves");
@@ -44,15 +51,16 @@ public class cg extends Frame implements MouseListener {
         board = new String[8][8];
         whitePieces = new HashSet<>(Arrays.asList("P", "R", "N", "B", "Q", "K"));
         blackPieces = new HashSet<>(Arrays.asList("p", "r", "n", "b", "q", "k"));
-        initializeBoard();
-
-        // Load piece images from the same directory as the source code
-        loadPieceImages();
 
         // Initialize players (Human vs Human or Human vs Computer)
-        whitePlayer = new HumanPlayer(true);
-        blackPlayer = playWithComputer ? new ComputerPlayer(false) : new HumanPlayer(false);
-        currentPlayer = whitePlayer;
+        Player whitePlayer = new HumanPlayer(true);
+        Player blackPlayer = playWithComputer
+            ? new ComputerPlayer(false, Search.Limits.time(COMPUTER_MOVE_MILLIS), COMPUTER_THREADS, COMPUTER_HASH_MB)
+            : new HumanPlayer(false);
+        initializeBoard(whitePlayer, blackPlayer);
+
+        // Make sure the shared piece images are decoding while the window is set up
+        SpriteAtlas.load();
 
         // Initialize ChessGameFunctions with the move count labels
         gameFunctions = new ChessGameFunctions(whiteScoreLabel, blackScoreLabel);
@@ -63,373 +71,208 @@ public class cg extends Frame implements MouseListener {
         addMouseListener(this);
         addWindowListener(new WindowAdapter() {
             public void windowClosing(WindowEvent we) {
+                // Cancel any search in progress so engine threads don't outlive the window
+                game.shutdown();
                 dispose();
             }
         });
     }
 
     // Initialize the chessboard
-    private void initializeBoard() {
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                board[i][j] = INITIAL_PIECES[i * 8 + j];
-            }
-        }
+    private void initializeBoard(Player whitePlayer, Player blackPlayer) {
+        game = new Game(Position.fromLayout(INITIAL_PIECES, true), whitePlayer, blackPlayer);
+        game.position().toBoard(board);
     }
 
-    // Load piece images
-    private void loadPieceImages() {
-        pieceImages = new HashMap<>();
-        pieceImages.put("wP", Toolkit.getDefaultToolkit().getImage("wp.png"));
-        pieceImages.put("wR", Toolkit.getDefaultToolkit().getImage("wr.png"));
-        pieceImages.put("wN", Toolkit.getDefaultToolkit().getImage("wn.png"));
-        pieceImages.put("wB", Toolkit.getDefaultToolkit().getImage("wb.png"));
-        pieceImages.put("wQ", Toolkit.getDefaultToolkit().getImage("wq.png"));
-        pieceImages.put("wK", Toolkit.getDefaultToolkit().getImage("wk.png"));
-        pieceImages.put("bP", Toolkit.getDefaultToolkit().getImage("bp.png"));
-        pieceImages.put("bR", Toolkit.getDefaultToolkit().getImage("br.png"));
-        pieceImages.put("bN", Toolkit.getDefaultToolkit().getImage("bn.png"));
-        pieceImages.put("bB", Toolkit.getDefaultToolkit().getImage("bb.png"));
-        pieceImages.put("bQ", Toolkit.getDefaultToolkit().getImage("bq.png"));
-        pieceImages.put("bK", Toolkit.getDefaultToolkit().getImage("bk.png"));
+    // Paint everything on every update: the back buffer covers the whole board, so the
+    // default clear to the background colour would only add a flicker
+    public void update(Graphics g) {
+        paint(g);
     }
 
-    // Paint the board and pieces
+    // Bring the back buffer up to date by redrawing only the dirty squares, then copy it to
+    // the screen; the copy is clipped to the area that was asked to repaint
     public void paint(Graphics g) {
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                // Draw the board tiles
-                g.setColor((i + j) % 2 == 0 ? Color.LIGHT_GRAY : Color.DARK_GRAY);
-                g.fillRect(j * TILE_SIZE, i * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+        if (sprites == null) {
+            sprites = SpriteAtlas.get().scaled(TILE_SIZE);
+        }
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (config == null) {
+            drawSquares(g, ALL_SQUARES); // not on a screen yet: no accelerated buffer to draw into
+            return;
+        }
+        do {
+            long squares = takeDirtySquares();
+            int state = backBuffer == null ? VolatileImage.IMAGE_INCOMPATIBLE : backBuffer.validate(config);
+            if (state == VolatileImage.IMAGE_INCOMPATIBLE) {
+                backBuffer = config.createCompatibleVolatileImage(BOARD_SIZE, BOARD_SIZE);
+            }
+            if (state != VolatileImage.IMAGE_OK) {
+                squares = ALL_SQUARES; // new or restored buffer: its old contents are gone
+            }
+            Graphics2D buffer = backBuffer.createGraphics();
+            drawSquares(buffer, squares);
+            buffer.dispose();
+            g.drawImage(backBuffer, 0, 0, null);
+        } while (backBuffer.contentsLost());
+    }
 
-                // Draw the pieces
-                String piece = board[i][j];
-                if (!piece.equals(".")) {
-                    Image pieceImage = pieceImages.get(getPieceKey(piece));
-                    if (pieceImage != null) {
-                        g.drawImage(pieceImage, j * TILE_SIZE, i * TILE_SIZE, TILE_SIZE, TILE_SIZE, this);
-                    }
+    // Draw the given squares: the cached tile, the pre-scaled piece and the move highlight
+    private void drawSquares(Graphics g, long squares) {
+        Image background = sprites.board();
+        for (long remaining = squares; remaining != 0; remaining &= remaining - 1) {
+            int sq = Long.numberOfTrailingZeros(remaining);
+            int px = (sq & 7) * TILE_SIZE;
+            int py = (sq >> 3) * TILE_SIZE;
+            g.drawImage(background, px, py, px + TILE_SIZE, py + TILE_SIZE, px, py, px + TILE_SIZE, py + TILE_SIZE, null);
+            int piece = Piece.fromChar(board[sq >> 3][sq & 7].charAt(0));
+            if (piece != Piece.NONE) {
+                Image pieceImage = sprites.sprite(piece);
+                if (pieceImage != null) {
+                    g.drawImage(pieceImage, px, py, null);
                 }
             }
-        }
-
-        // Highlight valid moves (if a piece is selected)
-        if (selectedPiece != null) {
-            g.setColor(Color.GREEN);
-            for (String move : validMoves) {
-                int x = Integer.parseInt(move.split(",")[0]);
-                int y = Integer.parseInt(move.split(",")[1]);
-                g.fillRect(x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+            // Highlight valid moves (if a piece is selected)
+            if ((validMoves >>> sq & 1) != 0) {
+                g.setColor(Color.GREEN);
+                g.fillRect(px, py, TILE_SIZE, TILE_SIZE);
             }
         }
     }
 
-    // Utility method to map the piece letter to a key for loading images
-    private String getPieceKey(String piece) {
-        if (piece.equals("P") || piece.equals("p")) {
-            return (piece.equals("P") ? "wP" : "bP");
+    // Mark squares for redrawing and ask AWT to repaint just their tiles; requests made
+    // before the next paint are merged by AWT into one update
+    synchronized void markDirty(long squares) {
+        dirtySquares |= squares;
+        for (long remaining = squares; remaining != 0; remaining &= remaining - 1) {
+            int sq = Long.numberOfTrailingZeros(remaining);
+            repaint((sq & 7) * TILE_SIZE, (sq >> 3) * TILE_SIZE, TILE_SIZE, TILE_SIZE);
         }
-        if (piece.equals("R") || piece.equals("r")) {
-            return (piece.equals("R") ? "wR" : "bR");
-        }
-        if (piece.equals("N") || piece.equals("n")) {
-            return (piece.equals("N") ? "wN" : "bN");
-        }
-        if (piece.equals("B") || piece.equals("b")) {
-            return (piece.equals("B") ? "wB" : "bB");
-        }
-        if (piece.equals("Q") || piece.equals("q")) {
-            return (piece.equals("Q") ? "wQ" : "bQ");
-        }
-        if (piece.equals("K") || piece.equals("k")) {
-            return (piece.equals("K") ? "wK" : "bK");
-        }
-        return null; // For empty tiles
+    }
+
+    // Redraw the whole board on the next paint
+    void invalidateAll() {
+        markDirty(ALL_SQUARES);
+    }
+
+    private synchronized long takeDirtySquares() {
+        long squares = dirtySquares;
+        dirtySquares = 0;
+        return squares;
     }
 
     // Mouse click event handler to select and move pieces
     public void mouseClicked(MouseEvent e) {
         int x = e.getX() / TILE_SIZE;
         int y = e.getY() / TILE_SIZE;
+        if (computerThinking) {
+            return; // Wait for the computer's reply
+        }
 
         if (selectedPiece == null) {
             // Select a piece
             if (!board[y][x].equals(".")) {
                 String piece = board[y][x];
-                if (isWhiteTurn && whitePieces.contains(piece) || !isWhiteTurn && blackPieces.contains(piece)) {
+                boolean whiteToMove = game.position().isWhiteToMove();
+                if (whiteToMove && whitePieces.contains(piece) || !whiteToMove && blackPieces.contains(piece)) {
                     selectedPiece = piece;
                     selectedX = x;
                     selectedY = y;
                     validMoves = calculateValidMoves(selectedPiece, selectedX, selectedY);
-                    repaint();
+                    markDirty(validMoves);
                 }
             }
         } else {
-            // Move the piece
-            if (validMoves.contains(x + "," + y)) {
-                String capturedPiece = board[y][x];
-                board[y][x] = selectedPiece;
-                board[selectedY][selectedX] = ".";
-                selectedPiece = null;
-                isWhiteTurn = !isWhiteTurn;
-                validMoves.clear();
-                repaint();
-                // Update move count using ChessGameFunctions
-                gameFunctions.updateMoveCount(isWhiteTurn);
-                // Handle capture (capturing the opponent's piece)
-                if (!capturedPiece.equals(".")) {
-                    System.out.println("Captured: " + capturedPiece);
-                }
-            } else {                    
-                selectedPiece = null;
-                isWhiteTurn = !isWhiteTurn;
-                validMoves.clear();
-                repaint();
-
-                // Handle capture (capturing the opponent's piece)
-                if (!capturedPiece.equals(".")) {
-                    System.out.println("Captured: " + capturedPiece);
-                }
-
-                // Check if the game is over
-                if (gameFunctions.isGameOver(board)) {
-                    gameFunctions.announceWinner(isWhiteTurn ? "White" : "Black");
-                    isGameOver = true;
-                }
+            // Move the piece, or just drop the selection if the click is not a valid target
+            long highlighted = validMoves;
+            selectedPiece = null;
+            validMoves = 0;
+            markDirty(highlighted);
+            if ((highlighted >>> (y * 8 + x) & 1) != 0) {
+                playMove(findMove(x, y));
 
                 // If it's the computer's turn, let it play
-                if (playWithComputer && !isWhiteTurn && !isGameOver) {
+                if (playWithComputer && !game.position().isWhiteToMove() && !isGameOver) {
                     computerMove();
                 }
             }
-
-
-    // Calculate valid moves for a piece (simplified for demonstration)
-// Calculate valid moves for a piece (simplified for demonstration)
-private Set<String> calculateValidMoves(String piece, int x, int y) {
-    Set<String> moves = new HashSet<>();
-
-    // Pawn movement
-    if (piece.equals("P")) {
-        // White pawn moves forward
-        if (y > 0 && board[y - 1][x].equals(".")) {
-            moves.add(x + "," + (y - 1)); // Move 1 square forward
-            // Double move on first turn
-            if (y == 6 && board[y - 2][x].equals(".")) {
-                moves.add(x + "," + (y - 2)); // Move 2 squares forward
-            }
-        }
-        // White pawn captures diagonally
-        if (y > 0 && x > 0 && board[y - 1][x - 1].equals("p")) {
-            moves.add((x - 1) + "," + (y - 1)); // Capture diagonally left
-        }
-        if (y > 0 && x < 7 && board[y - 1][x + 1].equals("p")) {
-            moves.add((x + 1) + "," + (y - 1)); // Capture diagonally right
         }
     }
 
-    // Rook movement (straight lines horizontally and vertically)
-    if (piece.equals("R") || piece.equals("r")) {
-        // Horizontal moves
-        for (int i = x + 1; i < 8; i++) {
-            if (board[y][i].equals(".")) {
-                moves.add(i + "," + y); // Empty space
-            } else if (isOpponent(piece, board[y][i])) {
-                moves.add(i + "," + y); // Capture opponent's piece
-                break;
-            } else {
-                break; // Blocked by own piece
-            }
-        }
-        for (int i = x - 1; i >= 0; i--) {
-            if (board[y][i].equals(".")) {
-                moves.add(i + "," + y);
-            } else if (isOpponent(piece, board[y][i])) {
-                moves.add(i + "," + y);
-                break;
-            } else {
-                break;
-            }
-        }
-        // Vertical moves
-        for (int i = y + 1; i < 8; i++) {
-            if (board[i][x].equals(".")) {
-                moves.add(x + "," + i);
-            } else if (isOpponent(piece, board[i][x])) {
-                moves.add(x + "," + i);
-                break;
-            } else {
-                break;
-            }
-        }
-        for (int i = y - 1; i >= 0; i--) {
-            if (board[i][x].equals(".")) {
-                moves.add(x + "," + i);
-            } else if (isOpponent(piece, board[i][x])) {
-                moves.add(x + "," + i);
-                break;
-            } else {
-                break;
-            }
+    // Calculate valid moves for a piece as a set of target squares for the view.
+    // Thin adapter over Game: the packed moves stay in moveBuffer for mouseClicked.
+    private long calculateValidMoves(String piece, int x, int y) {
+        long targets = 0;
+        moveCount = game.legalMovesFrom(y * 8 + x, moveBuffer);
+        for (int i = 0; i < moveCount; i++) {
+            targets |= 1L << Move.to(moveBuffer[i]);
         }
+        return targets;
     }
 
-    // Knight movement (L-shaped moves)
-    if (piece.equals("N") || piece.equals("n")) {
-        int[][] knightMoves = {
-            {2, 1}, {2, -1}, {-2, 1}, {-2, -1}, 
-            {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
-        };
-        for (int[] move : knightMoves) {
-            int newX = x + move[0];
-            int newY = y + move[1];
-            if (newX >= 0 && newX < 8 && newY >= 0 && newY < 8) {
-                if (board[newY][newX].equals(".") || isOpponent(piece, board[newY][newX])) {
-                    moves.add(newX + "," + newY);
-                }
+    // Find the generated move from the selected square to (x, y); queen promotions come first
+    private int findMove(int x, int y) {
+        int from = selectedY * 8 + selectedX;
+        int to = y * 8 + x;
+        for (int i = 0; i < moveCount; i++) {
+            int move = moveBuffer[i];
+            if (Move.from(move) == from && Move.to(move) == to) {
+                return move;
             }
         }
+        return Move.NONE;
     }
 
-    // Bishop movement (diagonal moves)
-    if (piece.equals("B") || piece.equals("b")) {
-        // Diagonal moves (top-right, top-left, bottom-right, bottom-left)
-        for (int i = 1; i < 8; i++) {
-            // Top-right diagonal
-            if (x + i < 8 && y - i >= 0) {
-                if (board[y - i][x + i].equals(".")) {
-                    moves.add((x + i) + "," + (y - i));
-                } else if (isOpponent(piece, board[y - i][x + i])) {
-                    moves.add((x + i) + "," + (y - i));
-                    break;
-                } else {
-                    break;
-                }
-            }
-            // Top-left diagonal
-            if (x - i >= 0 && y - i >= 0) {
-                if (board[y - i][x - i].equals(".")) {
-                    moves.add((x - i) + "," + (y - i));
-                } else if (isOpponent(piece, board[y - i][x - i])) {
-                    moves.add((x - i) + "," + (y - i));
-                    break;
-                } else {
-                    break;
-                }
-            }
-            // Bottom-right diagonal
-            if (x + i < 8 && y + i < 8) {
-                if (board[y + i][x + i].equals(".")) {
-                    moves.add((x + i) + "," + (y + i));
-                } else if (isOpponent(piece, board[y + i][x + i])) {
-                    moves.add((x + i) + "," + (y + i));
-                    break;
-                } else {
-                    break;
-                }
-            }
-            // Bottom-left diagonal
-            if (x - i >= 0 && y + i < 8) {
-                if (board[y + i][x - i].equals(".")) {
-                    moves.add((x - i) + "," + (y + i));
-                } else if (isOpponent(piece, board[y + i][x - i])) {
-                    moves.add((x - i) + "," + (y + i));
-                    break;
-                } else {
-                    break;
-                }
-            }
+    // Apply a move to the game and refresh everything that depends on it
+    private void playMove(int move) {
+        String capturedPiece = board[Move.to(move) >> 3][Move.to(move) & 7];
+        if (!game.play(move)) {
+            return;
         }
-    }
-
-    // Queen movement (rook + bishop)
-    if (piece.equals("Q") || piece.equals("q")) {
-        moves.addAll(calculateValidMoves("R", x, y)); // Rook moves
-        moves.addAll(calculateValidMoves("B", x, y)); // Bishop moves
-    }
-
-    // King movement (1 square in any direction)
-    if (piece.equals("K") || piece.equals("k")) {
-        int[][] kingMoves = {
-            {1, 0}, {0, 1}, {-1, 0}, {0, -1},
-            {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-        };
-        for (int[] move : kingMoves) {
-            int newX = x + move[0];
-            int newY = y + move[1];
-            if (newX >= 0 && newX < 8 && newY >= 0 && newY < 8) {
-                if (board[newY][newX].equals(".") || isOpponent(piece, board[newY][newX])) {
-                    moves.add(newX + "," + newY);
-                }
+        Position position = game.position();
+        // Only the squares the move touched need redrawing: from and to, plus the rook of a
+        // castling move and the pawn taken en passant
+        long changed = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            if (board[sq >> 3][sq & 7].charAt(0) != Piece.toChar(position.pieceAt(sq))) {
+                changed |= 1L << sq;
             }
         }
-    }
-
-    return moves;
-}
-    // Helper methods to calculate diagonal-moving pieces (Bishop, Queen)
-    private Set<String> calculateDiagonalMoves(int x, int y, String piece) {
-        Set<String> moves = new HashSet<>();
-        String[] directions = {"up-left", "up-right", "down-left", "down-right"};
-        for (String direction : directions) {
-            int i = 1;
-            while (true) {
-                int newX = x, newY = y;
-                if (direction.equals("up-left")) {
-                    newX -= i;
-                    newY -= i;
-                }
-                if (direction.equals("up-right")) {
-                    newX += i;
-                    newY -= i;
-                }
-                if (direction.equals("down-left")) {
-                    newX -= i;
-                    newY += i;
-                }
-                if (direction.equals("down-right")) {
-                    newX += i;
-                    newY += i;
-                }
-                if (newX < 0 || newY < 0 || newX >= 8 || newY >= 8) break;
-
-                String target = board[newY][newX];
-                if (target.equals(".")) {
-                    moves.add(newX + "," + newY);
-                } else {
-                    if ((Character.isLowerCase(target.charAt(0)) != Character.isLowerCase(piece.charAt(0)))) {
-                        moves.add(newX + "," + newY);
-                    }
-                    break;
-                }
-                i++;
-            }
+        position.toBoard(board);
+        markDirty(changed);
+        // Update move count using ChessGameFunctions
+        gameFunctions.updateMoveCount(game);
+        // Show what the move captured, and whether it gives check, in the title bar
+        setTitle(gameFunctions.moveText(capturedPiece, Attacks.inCheck(position, position.sideToMove())));
+
+        // Check if the game is over
+        if (gameFunctions.isGameOver(game)) {
+            gameFunctions.announceWinner(gameFunctions.resultText(game));
+            isGameOver = true;
         }
-        return moves;
-    }
-// Helper function to check if a piece is an opponent
-private boolean isOpponent(String piece, String target) {
-    if (piece.equals("P") || piece.equals("R") || piece.equals("N") || piece.equals("B") || piece.equals("Q") || piece.equals("K")) {
-        return target.equals(target.toLowerCase()); // Target is black
-    } else {
-        return target.equals(target.toUpperCase()); // Target is white
     }
-}
-
 
-    // Handle computer's move (basic random move for demonstration)
+    // Handle computer's move: search in the background and play the move when it arrives
     private void computerMove() {
-        // Simplified: Make a random valid move (to be expanded)
-        Random rand = new Random();
-        int x = rand.nextInt(8);
-        int y = rand.nextInt(8);
-
-        // Simplified move: move a random piece
-        if (!board[y][x].equals(".")) {
-            selectedPiece = board[y][x];
-            validMoves = calculateValidMoves(selectedPiece, x, y);
-            mouseClicked(new MouseEvent(this, 0, 0, 0, x * TILE_SIZE, y * TILE_SIZE, 1, false));
+        Player player = game.playerToMove();
+        if (!(player instanceof ComputerPlayer)) {
+            return;
         }
+        computerThinking = true;
+        ((ComputerPlayer) player).think(game.position(), new EngineDriver.Callback() {
+            public void onProgress(Search.Result progress) {
+                setTitle("Chess Game - thinking: depth " + progress.depth + " score " + progress.score
+                    + " pv " + progress.pvText());
+            }
+
+            public void onResult(Search.Result result) {
+                computerThinking = false;
+                setTitle("Chess Game");
+                if (result.move != Move.NONE) {
+                    playMove(result.move);
+                }
+            }
+        });
     }
 
     // Unused MouseListener methods
@@ -437,41 +280,15 @@ private boolean isOpponent(String piece, String target) {
     public void mouseReleased(MouseEvent e) {}
     public void mouseEntered(MouseEvent e) {}
     public void mouseExited(MouseEvent e) {}
-        // Player class and subclasses for Human and Computer players
-    abstract class Player {
-        boolean isWhite;
-
-        Player(boolean isWhite) {
-            this.isWhite = isWhite;
-        }
-
-        abstract void makeMove();
-    }
-
-    class HumanPlayer extends Player {
-        HumanPlayer(boolean isWhite) {
-            super(isWhite);
-        }
-
-        @Override
-        void makeMove() {
-            // Human player makes move (already handled by mouse events)
-        }
-    }
-
-    class ComputerPlayer extends Player {
-        ComputerPlayer(boolean isWhite) {
-            super(isWhite);
-        }
-
-        @Override
-        void makeMove() {
-            // Implement simple AI for computer move here
-        }
-    }
 
     // Main method to start the game
-    public static void main(String[] args) {
+    // Pass --headless to run the engine games without a window (see GameServer)
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--headless")) {
+            GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        SpriteAtlas.load(); // decode the piece images in parallel with AWT start-up
         new cg(true); // Change to `new cg(false)` for Human vs Human
     }
 }